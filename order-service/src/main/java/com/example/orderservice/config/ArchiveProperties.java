@@ -0,0 +1,29 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Cold storage for old orders. The archival job runs on {@code app.archive.cron} and moves
+ * orders whose {@code order_date} is older than {@code retention} into segment files under
+ * {@code directory}; lookups by id fall back to those files.
+ *
+ * @param directory        must be shared by all instances (e.g. a ReadWriteMany volume),
+ *                         otherwise each instance only sees the segments it wrote
+ * @param segmentRows      orders per segment file, also the size of one archival batch
+ * @param compressionLevel zstd level for the column blocks
+ * @param decodedSegments  segments whose columns are kept decompressed for lookups, least
+ *                         recently used dropped first; about 40 bytes per row each
+ */
+@ConfigurationProperties(prefix = "app.archive")
+public record ArchiveProperties(
+        boolean enabled,
+        @DefaultValue("90d") Duration retention,
+        @DefaultValue("order-archive") Path directory,
+        @DefaultValue("10000") int segmentRows,
+        @DefaultValue("9") int compressionLevel,
+        @DefaultValue("16") int decodedSegments) {
+}
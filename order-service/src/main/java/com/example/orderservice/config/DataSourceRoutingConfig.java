@@ -0,0 +1,55 @@
+package com.example.orderservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Splits reads and writes across two pools when {@code app.datasource.routing.enabled} is set.
+ * The primary pool is configured through the usual {@code spring.datasource.*} properties,
+ * the replica pool through {@code app.datasource.replica.*}. Not applied to sharded storage
+ * (see {@link ShardingConfig}).
+ */
+@Configuration
+@ConditionalOnExpression("${app.datasource.routing.enabled:false} and !${app.sharding.enabled:false}")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${app.datasource.routing.lag-tolerance:0s}") Duration lagTolerance,
+            @Value("${app.datasource.routing.migrate-replica:false}") boolean migrateReplica) {
+        if (migrateReplica) {
+            // Only for local setups where the "replica" is an independent database
+            Flyway.configure().dataSource(replica).load().migrate();
+        }
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, lagTolerance);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.orderservice.config;
 
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
@@ -12,7 +15,14 @@ public class DiscoveryConfig {
 
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        RestTemplate restTemplate = new RestTemplate();
+        // Smile goes first so it leads the Accept header; JSON remains listed as the fallback
+        restTemplate.getMessageConverters().removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+        restTemplate.getMessageConverters().add(0,
+                new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder.factory(new SmileFactory()).build()));
+        // The load balancer appends its interceptor after this one once the bean is created
+        restTemplate.getInterceptors().add(FlightRecorderEvents::recordDownstreamCall);
+        return restTemplate;
     }
 }
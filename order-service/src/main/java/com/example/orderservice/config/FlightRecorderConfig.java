@@ -0,0 +1,74 @@
+package com.example.orderservice.config;
+
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * Keeps a continuous flight recording running and adds this service's own events to it.
+ * The events are registered even with {@code app.jfr.enabled=false}, so a recording started
+ * with {@code jcmd <pid> JFR.start} carries them too.
+ */
+@Configuration
+@EnableConfigurationProperties(FlightRecorderProperties.class)
+public class FlightRecorderConfig {
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderConfig.class);
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "app.jfr", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public Recording continuousRecording(FlightRecorderProperties properties) throws IOException, ParseException {
+        String settings = properties.settings();
+        Recording recording = new Recording(settings.endsWith(".jfc")
+                ? jdk.jfr.Configuration.create(Path.of(settings))
+                : jdk.jfr.Configuration.getConfiguration(settings));
+        // Environment variables and system properties often carry credentials
+        recording.disable("jdk.InitialEnvironmentVariable");
+        recording.disable("jdk.InitialSystemProperty");
+        recording.setName("continuous");
+        recording.setToDisk(true);
+        recording.setMaxAge(properties.maxAge());
+        recording.setMaxSize(properties.maxSize().toBytes());
+        logger.info("Starting continuous flight recording with '{}' settings, keeping {} up to {}",
+                settings, properties.maxAge(), properties.maxSize());
+        return recording;
+    }
+
+    @Bean
+    public FlightRecorderEndpoint flightRecorderEndpoint(FlightRecorderProperties properties) {
+        return new FlightRecorderEndpoint(properties.dumpAge());
+    }
+
+    @Bean
+    public RequestEventObservationHandler requestEventObservationHandler() {
+        return new RequestEventObservationHandler();
+    }
+
+    /**
+     * Adds the repository query event to every Spring Data repository proxy. Has to run
+     * before the factory beans initialize, which is when they build the proxies.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryQueryEvents() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repository) -> proxyFactory.addAdvice(
+                                    FlightRecorderEvents.repositoryQueries(repository.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.orderservice.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Application events written to the JDK Flight Recorder next to the JVM's own, so a
+ * recording shows which request or query a GC pause, lock or hot method belongs to. Events
+ * cost next to nothing while no recording has them enabled. Only events over their threshold
+ * are kept, so a busy instance does not fill the recording with fast requests; a custom .jfc
+ * in {@code app.jfr.settings} can lower it.
+ */
+final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() {
+    }
+
+    @Name("com.example.orderservice.HttpRequest")
+    @Label("HTTP Request")
+    @Description("An HTTP request handled by this service")
+    @Category({ "Order Service", "HTTP" })
+    @Threshold("10 ms")
+    @StackTrace(false)
+    static final class HttpRequest extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("URI Template")
+        String uri;
+
+        @Label("Path")
+        String path;
+
+        @Label("Status")
+        int status;
+    }
+
+    @Name("com.example.orderservice.RepositoryQuery")
+    @Label("Repository Query")
+    @Description("A Spring Data repository method call, including its transaction")
+    @Category({ "Order Service", "Database" })
+    @Threshold("1 ms")
+    static final class RepositoryQuery extends Event {
+        @Label("Repository")
+        String repository;
+
+        @Label("Method")
+        String method;
+    }
+
+    @Name("com.example.orderservice.DownstreamCall")
+    @Label("Downstream Call")
+    @Description("A call to user-service or product-service, from picking the instance until the response headers arrive")
+    @Category({ "Order Service", "HTTP" })
+    @Threshold("1 ms")
+    static final class DownstreamCall extends Event {
+        @Label("Service")
+        String service;
+
+        @Label("Method")
+        String method;
+
+        @Label("Path")
+        String path;
+
+        @Label("Status")
+        @Description("0 when no response arrived")
+        int status;
+    }
+
+    /**
+     * {@code ClientHttpRequestInterceptor} that records a {@link DownstreamCall} per call.
+     * Registered ahead of the load balancer's interceptor, so the URI still names the service.
+     */
+    static ClientHttpResponse recordDownstreamCall(org.springframework.http.HttpRequest request, byte[] body,
+            ClientHttpRequestExecution execution) throws IOException {
+        DownstreamCall event = new DownstreamCall();
+        event.begin();
+        ClientHttpResponse response = null;
+        try {
+            response = execution.execute(request, body);
+            return response;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.service = request.getURI().getHost();
+                event.method = request.getMethod().name();
+                event.path = request.getURI().getPath();
+                event.status = response == null ? 0 : response.getStatusCode().value();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Records a {@link RepositoryQuery} around each call on a repository of the given type.
+     */
+    static MethodInterceptor repositoryQueries(Class<?> repositoryInterface) {
+        String repository = repositoryInterface.getSimpleName();
+        return invocation -> {
+            RepositoryQuery event = new RepositoryQuery();
+            event.begin();
+            try {
+                return invocation.proceed();
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.repository = repository;
+                    event.method = invocation.getMethod().getName();
+                    event.commit();
+                }
+            }
+        };
+    }
+}
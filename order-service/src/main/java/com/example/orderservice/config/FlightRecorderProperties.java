@@ -0,0 +1,25 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Continuous JDK Flight Recorder recording kept on disk for the last {@code maxAge}.
+ *
+ * @param settings JFR settings to record with: {@code default} (about 1% overhead) or
+ *                 {@code profile} (more detail, about 2%), or a path to a .jfc file
+ * @param maxAge   how much history the recording keeps
+ * @param maxSize  on-disk cap for the recording; the oldest data goes first
+ * @param dumpAge  how much history {@code /actuator/jfr} returns when no age is given
+ */
+@ConfigurationProperties(prefix = "app.jfr")
+public record FlightRecorderProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("default") String settings,
+        @DefaultValue("30m") Duration maxAge,
+        @DefaultValue("100MB") DataSize maxSize,
+        @DefaultValue("5m") Duration dumpAge) {
+}
@@ -0,0 +1,165 @@
+package com.example.orderservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a peak-sensitive moving average of response time and the number of requests in
+ * flight for every instance the load balancer sends to. The average jumps straight to a
+ * slower response and decays towards faster ones, and it also decays while an instance gets
+ * no traffic, so an instance that was avoided for being slow is tried again.
+ *
+ * <p>Registered as a {@link LoadBalancerLifecycle}, so the blocking load balancer client
+ * reports the start and end of every call. Publishes {@code loadbalancer.instance.latency}
+ * per instance; request counts and timers come from Spring Cloud's own
+ * {@code loadbalancer.requests.*} meters.
+ */
+public class InstanceLoadTracker implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final Map<String, Map<String, InstanceLoad>> services = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+    private final double decayNanos;
+    private final long initialLatencyNanos;
+    private final long failurePenaltyNanos;
+
+    public InstanceLoadTracker(LoadBalancerProperties properties, MeterRegistry registry) {
+        this.registry = registry;
+        this.decayNanos = properties.decay().toNanos();
+        this.initialLatencyNanos = properties.initialLatency().toNanos();
+        this.failurePenaltyNanos = properties.failurePenalty().toNanos();
+    }
+
+    /**
+     * Expected cost of sending one more request: the decayed latency average times the
+     * requests that would then be in flight.
+     */
+    public double cost(ServiceInstance instance, long now) {
+        InstanceLoad load = load(instance);
+        return load.latency(now) * (load.outstanding.get() + 1);
+    }
+
+    public int trackedCount(String serviceId) {
+        Map<String, InstanceLoad> instances = services.get(serviceId);
+        return instances == null ? 0 : instances.size();
+    }
+
+    /**
+     * Starts tracking every instance in the list and forgets, including their meters, those
+     * of the service that are no longer in it.
+     */
+    public void retain(String serviceId, List<ServiceInstance> current) {
+        Set<String> keys = new HashSet<>();
+        for (ServiceInstance instance : current) {
+            load(instance);
+            keys.add(key(instance));
+        }
+        services.getOrDefault(serviceId, Map.of()).entrySet().removeIf(entry -> {
+            if (keys.contains(entry.getKey())) {
+                return false;
+            }
+            registry.remove(entry.getValue().gauge);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext timed && timed.getRequestStartTime() == 0) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        if (lbResponse.hasServer()) {
+            load(lbResponse.getServer()).outstanding.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD || lbResponse == null
+                || !lbResponse.hasServer()) {
+            return;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        InstanceLoad load = services.getOrDefault(instance.getServiceId(), Map.of()).get(key(instance));
+        if (load == null) {
+            // Dropped by retain() while the call was in flight
+            return;
+        }
+        load.outstanding.decrementAndGet();
+        long now = System.nanoTime();
+        long rtt = completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timed
+                && timed.getRequestStartTime() != 0 ? now - timed.getRequestStartTime() : 0;
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            rtt = Math.max(rtt, failurePenaltyNanos);
+        }
+        load.observe(rtt, now);
+    }
+
+    private InstanceLoad load(ServiceInstance instance) {
+        return services.computeIfAbsent(instance.getServiceId(), serviceId -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key(instance), key -> new InstanceLoad(instance));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private final class InstanceLoad {
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final TimeGauge gauge;
+        private double latencyNanos = initialLatencyNanos;
+        private long updatedAt = System.nanoTime();
+
+        InstanceLoad(ServiceInstance instance) {
+            this.gauge = TimeGauge.builder("loadbalancer.instance.latency", this, TimeUnit.NANOSECONDS,
+                            load -> load.latency(System.nanoTime()))
+                    .description("Decaying peak average of the instance's response time")
+                    .tag("serviceId", instance.getServiceId())
+                    .tag("serviceInstance.host", instance.getHost())
+                    .tag("serviceInstance.port", String.valueOf(instance.getPort()))
+                    .register(registry);
+        }
+
+        /**
+         * The average, faded towards zero by the time since the last response.
+         */
+        synchronized double latency(long now) {
+            return latencyNanos * weight(now);
+        }
+
+        synchronized void observe(long rttNanos, long now) {
+            // Slower responses count in full right away; faster ones are blended in by the
+            // time that passed since the previous response
+            latencyNanos = rttNanos > latencyNanos ? rttNanos
+                    : latencyNanos * weight(now) + rttNanos * (1 - weight(now));
+            updatedAt = now;
+        }
+
+        private double weight(long now) {
+            return Math.exp(-(now - updatedAt) / decayNanos);
+        }
+    }
+}
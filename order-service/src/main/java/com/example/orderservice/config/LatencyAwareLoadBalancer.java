@@ -0,0 +1,74 @@
+package com.example.orderservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices: picks two instances at random and sends the request to the one with
+ * the lower {@link InstanceLoadTracker#cost cost}. A slow or overloaded instance loses
+ * almost every comparison, while sampling only two keeps concurrent requests from all piling
+ * onto the same momentarily fastest instance, as picking the global minimum would.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    private static final Logger logger = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+    private final InstanceLoadTracker tracker;
+
+    public LatencyAwareLoadBalancer(String serviceId, ObjectProvider<ServiceInstanceListSupplier> suppliers,
+            InstanceLoadTracker tracker) {
+        this.serviceId = serviceId;
+        this.suppliers = suppliers;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            logger.warn("No instances available for service {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (tracker.trackedCount(serviceId) != instances.size()) {
+            tracker.retain(serviceId, instances);
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        return new DefaultResponse(tracker.cost(a, now) <= tracker.cost(b, now) ? a : b);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.orderservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.loadbalancer", name = "latency-aware", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(LoadBalancerProperties.class)
+@LoadBalancerClients(defaultConfiguration = LoadBalancerConfig.LatencyAwareClientConfig.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceLoadTracker instanceLoadTracker(LoadBalancerProperties properties, MeterRegistry registry) {
+        return new InstanceLoadTracker(properties, registry);
+    }
+
+    /**
+     * Applied in each downstream service's own load balancer context, which is why it is
+     * not a {@code @Configuration} picked up by component scanning.
+     */
+    static class LatencyAwareClientConfig {
+
+        @Bean
+        ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                LoadBalancerClientFactory clientFactory, InstanceLoadTracker tracker) {
+            String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+            return new LatencyAwareLoadBalancer(serviceId,
+                    clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), tracker);
+        }
+    }
+}
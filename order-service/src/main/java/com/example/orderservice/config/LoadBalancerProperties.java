@@ -0,0 +1,24 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Latency-aware choice between instances of user-service and product-service.
+ *
+ * @param latencyAware   pick with {@link LatencyAwareLoadBalancer}; when false, Spring Cloud's
+ *                       round robin is used
+ * @param decay          how quickly an instance's latency average forgets old responses; an
+ *                       instance that was slow is tried again after roughly this long
+ * @param initialLatency latency assumed for an instance before its first response
+ * @param failurePenalty latency recorded for a call that failed, if it failed faster
+ */
+@ConfigurationProperties(prefix = "app.loadbalancer")
+public record LoadBalancerProperties(
+        @DefaultValue("true") boolean latencyAware,
+        @DefaultValue("10s") Duration decay,
+        @DefaultValue("50ms") Duration initialLatency,
+        @DefaultValue("1s") Duration failurePenalty) {
+}
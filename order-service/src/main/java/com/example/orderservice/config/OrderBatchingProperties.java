@@ -0,0 +1,27 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Group commit for order inserts.
+ *
+ * @param maxBatchSize  most orders written in one transaction
+ * @param maxDelay      longest the first order of a batch waits for others to join it; the
+ *                      most a batch adds to an insert's latency, besides waiting for the
+ *                      batch ahead of it to commit
+ * @param queueCapacity orders waiting per shard before callers block
+ * @param timeout       longest a caller waits to queue its order or for its batch to commit;
+ *                      an order that timed out after being taken into a batch may still be
+ *                      written
+ */
+@ConfigurationProperties(prefix = "app.order-batching")
+public record OrderBatchingProperties(
+        boolean enabled,
+        @DefaultValue("100") int maxBatchSize,
+        @DefaultValue("5ms") Duration maxDelay,
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("10s") Duration timeout) {
+}
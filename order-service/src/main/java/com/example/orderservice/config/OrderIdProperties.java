@@ -0,0 +1,14 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Order id generation.
+ *
+ * @param nodeId this instance's slot in every id, 0 to 31; must differ between instances
+ *               sharing a database. Unset, it is the StatefulSet ordinal at the end of
+ *               {@code HOSTNAME} ({@code order-service-1} is node 1), or 0 without one.
+ */
+@ConfigurationProperties(prefix = "app.order-id")
+public record OrderIdProperties(Integer nodeId) {
+}
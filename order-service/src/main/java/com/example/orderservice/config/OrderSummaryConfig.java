@@ -0,0 +1,9 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(OrderSummaryProperties.class)
+public class OrderSummaryConfig {
+}
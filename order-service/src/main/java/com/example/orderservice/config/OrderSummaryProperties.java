@@ -0,0 +1,19 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * In-memory cache of per-user order summaries.
+ *
+ * @param cacheTtl how long a cached summary is trusted. Changes made through this instance
+ *                 update the cache right away; changes through other instances show up
+ *                 after at most this long
+ */
+@ConfigurationProperties(prefix = "app.order-summary")
+public record OrderSummaryProperties(
+        @DefaultValue("100000") long cacheMaximumSize,
+        @DefaultValue("10m") Duration cacheTtl) {
+}
@@ -0,0 +1,25 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(ProcessingProperties.class)
+public class ProcessingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.processing", name = "enabled", havingValue = "true")
+    public ThreadPoolTaskExecutor orderProcessingExecutor(ProcessingProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.concurrency());
+        executor.setMaxPoolSize(properties.concurrency());
+        executor.setThreadNamePrefix("order-processing-");
+        // Let an in-flight batch finish so its claims are released rather than left to time out
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Background confirmation of pending orders.
+ *
+ * @param batchSize    orders claimed per shard and round
+ * @param concurrency  parallel product lookups while confirming a batch
+ * @param claimTimeout claims older than this are taken over, e.g. after an instance died
+ *                     mid-batch
+ */
+@ConfigurationProperties(prefix = "app.processing")
+public record ProcessingProperties(
+        boolean enabled,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("8") int concurrency,
+        @DefaultValue("5m") Duration claimTimeout) {
+}
@@ -0,0 +1,109 @@
+package com.example.orderservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the transaction's read-only flag is known when the connection is actually fetched.
+ *
+ * <p>For {@code lagTolerance} after the last write committed by this instance, reads also go
+ * to the primary so callers see their own writes while the replica catches up. A write is a
+ * transaction that prepared an INSERT, UPDATE, DELETE or MERGE; one that only read, such as
+ * a background poll finding nothing to claim, does not hold reads on the primary. If the
+ * replica cannot hand out a connection, reads fall back to the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private static final Pattern WRITE = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*)*(?:insert|update|delete|merge)\\b", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final DataSource primary;
+    private final long lagToleranceNanos;
+    private volatile long lastWriteNanos;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration lagTolerance) {
+        this.primary = primary;
+        this.lagToleranceNanos = lagTolerance.toNanos();
+        this.lastWriteNanos = System.nanoTime() - lagToleranceNanos;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        if (System.nanoTime() - lastWriteNanos < lagToleranceNanos) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection;
+        try {
+            connection = super.getConnection();
+        } catch (SQLException e) {
+            if (determineCurrentLookupKey() != Route.REPLICA) {
+                throw e;
+            }
+            logger.warn("Replica connection failed, reading from primary: {}", e.getMessage());
+            return primary.getConnection();
+        }
+        // Non-transactional access (health checks, migrations) is not a write worth waiting for
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return connection;
+        }
+        return recordingWrites(connection);
+    }
+
+    /**
+     * Wraps a write transaction's connection so that preparing its first write statement
+     * moves {@link #lastWriteNanos} forward once the transaction commits.
+     */
+    private Connection recordingWrites(Connection connection) {
+        boolean[] registered = new boolean[1];
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (!registered[0] && method.getName().startsWith("prepare") && args != null
+                            && args[0] instanceof String sql && WRITE.matcher(sql).find()
+                            && TransactionSynchronizationManager.isSynchronizationActive()) {
+                        registered[0] = true;
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                            @Override
+                            public void afterCommit() {
+                                lastWriteNanos = System.nanoTime();
+                            }
+                        });
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.orderservice.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import jdk.jfr.EventType;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+/**
+ * Writes an {@link FlightRecorderEvents.HttpRequest} event per HTTP request, carrying the
+ * same method, URI template and status as {@code http.server.requests}. Does nothing while
+ * no recording has the event enabled.
+ */
+public class RequestEventObservationHandler implements ObservationHandler<ServerRequestObservationContext> {
+
+    private static final EventType TYPE = EventType.getEventType(FlightRecorderEvents.HttpRequest.class);
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context instanceof ServerRequestObservationContext;
+    }
+
+    @Override
+    public void onStart(ServerRequestObservationContext context) {
+        if (TYPE.isEnabled()) {
+            FlightRecorderEvents.HttpRequest event = new FlightRecorderEvents.HttpRequest();
+            event.begin();
+            context.put(FlightRecorderEvents.HttpRequest.class, event);
+        }
+    }
+
+    @Override
+    public void onStop(ServerRequestObservationContext context) {
+        FlightRecorderEvents.HttpRequest event = context.get(FlightRecorderEvents.HttpRequest.class);
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = value(context, "method");
+            event.uri = value(context, "uri");
+            event.path = context.getCarrier().getRequestURI();
+            event.status = context.getResponse() == null ? 0 : context.getResponse().getStatus();
+            event.commit();
+        }
+    }
+
+    private static String value(ServerRequestObservationContext context, String key) {
+        KeyValue keyValue = context.getLowCardinalityKeyValue(key);
+        return keyValue == null ? "UNKNOWN" : keyValue.getValue();
+    }
+}
@@ -0,0 +1,497 @@
+package com.example.orderservice.config;
+
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Negotiated gzip/zstd response compression. The body is held in memory only until it
+ * reaches the size threshold of the matching rule; from then on it is streamed through the
+ * compressor, so large responses are never buffered whole. Responses that stay below the
+ * threshold, or whose content type has no rule, are sent as-is.
+ */
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCompressionFilter.class);
+
+    static final String GZIP = "gzip";
+    static final String ZSTD = "zstd";
+
+    private final CompressionProperties properties;
+    private final List<String> supportedEncodings;
+
+    public ResponseCompressionFilter(CompressionProperties properties) {
+        this.properties = properties;
+        List<String> encodings = new ArrayList<>();
+        for (String encoding : properties.encodings()) {
+            String normalized = encoding.trim().toLowerCase(Locale.ROOT);
+            if (ZSTD.equals(normalized) && !zstdAvailable()) {
+                logger.warn("zstd native library not available, serving gzip only");
+                continue;
+            }
+            if (GZIP.equals(normalized) || ZSTD.equals(normalized)) {
+                encodings.add(normalized);
+            }
+        }
+        this.supportedEncodings = List.copyOf(encodings);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        List<String> accepted = acceptedEncodings(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (accepted.isEmpty() || HttpMethod.HEAD.matches(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CompressingResponseWrapper wrapper = new CompressingResponseWrapper(response, accepted);
+        chain.doFilter(request, wrapper);
+        if (request.isAsyncStarted()) {
+            // The body is produced on another thread; stop intercepting rather than risk truncating it
+            wrapper.passThrough();
+        } else {
+            wrapper.finish();
+        }
+    }
+
+    /**
+     * Encodings both sides support, best first: by the client's q-value, then server preference.
+     */
+    List<String> acceptedEncodings(String header) {
+        if (header == null || header.isBlank() || supportedEncodings.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Double> qualities = new HashMap<>();
+        for (String part : header.split(",")) {
+            String[] tokens = part.split(";");
+            double quality = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            qualities.put(tokens[0].trim().toLowerCase(Locale.ROOT), quality);
+        }
+        Double wildcard = qualities.get("*");
+        List<String> accepted = new ArrayList<>();
+        for (String encoding : supportedEncodings) {
+            Double quality = qualities.getOrDefault(encoding, wildcard);
+            if (quality != null && quality > 0) {
+                accepted.add(encoding);
+            }
+        }
+        accepted.sort(Comparator.comparingDouble(encoding -> -qualities.getOrDefault(encoding, wildcard)));
+        return accepted;
+    }
+
+    private CompressionProperties.Rule ruleFor(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        for (CompressionProperties.Rule rule : properties.rules()) {
+            if (rule.mimeType().includes(mediaType)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static boolean zstdAvailable() {
+        try {
+            com.github.luben.zstd.util.Native.load();
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private final class CompressingResponseWrapper extends HttpServletResponseWrapper {
+        private final List<String> accepted;
+        private final CompressingOutputStream outputStream = new CompressingOutputStream();
+        private PrintWriter writer;
+        private long contentLength = -1;
+
+        CompressingResponseWrapper(HttpServletResponse response, List<String> accepted) {
+            super(response);
+            this.accepted = accepted;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                Charset charset = Charset.forName(getCharacterEncoding());
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, charset));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (outputStream.decided()) {
+                if (!outputStream.compressing) {
+                    super.setContentLengthLong(len);
+                }
+            } else {
+                contentLength = len;
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(value);
+            } else {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (outputStream.decided()) {
+                outputStream.flush();
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public boolean isCommitted() {
+            return outputStream.decided() && super.isCommitted();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            outputStream.restart();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            outputStream.undecide();
+            contentLength = -1;
+        }
+
+        void passThrough() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (!outputStream.decided()) {
+                outputStream.decide(false);
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            outputStream.close();
+        }
+
+        private final class CompressingOutputStream extends ServletOutputStream {
+            private ByteArrayOutputStream buffer;
+            private OutputStream target;
+            private DetachableOutputStream sink;
+            private long threshold;
+            private List<String> encodings;
+            private boolean compressing;
+            private boolean closed;
+
+            boolean decided() {
+                return target != null;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                if (target == null && buffer == null) {
+                    start();
+                }
+                if (target != null) {
+                    target.write(b);
+                    return;
+                }
+                buffer.write(b);
+                if (buffer.size() >= threshold) {
+                    decide(true);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (target == null && buffer == null) {
+                    start();
+                }
+                if (target != null) {
+                    target.write(b, off, len);
+                    return;
+                }
+                buffer.write(b, off, len);
+                if (buffer.size() >= threshold) {
+                    decide(true);
+                }
+            }
+
+            private void start() throws IOException {
+                CompressionProperties.Rule rule = getResponse().isCommitted()
+                        || containsHeader(HttpHeaders.CONTENT_ENCODING) ? null : ruleFor(getContentType());
+                List<String> candidates = new ArrayList<>(accepted);
+                if (rule != null && rule.encodings() != null && !rule.encodings().isEmpty()) {
+                    candidates.retainAll(rule.encodings());
+                }
+                if (rule == null || candidates.isEmpty()) {
+                    decide(false);
+                    return;
+                }
+                addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                encodings = candidates;
+                threshold = (rule.minResponseSize() != null ? rule.minResponseSize() : properties.minResponseSize())
+                        .toBytes();
+                if (contentLength >= 0 && contentLength < threshold) {
+                    decide(false);
+                    return;
+                }
+                buffer = new ByteArrayOutputStream((int) Math.min(threshold, 64 * 1024));
+            }
+
+            void decide(boolean compress) throws IOException {
+                OutputStream raw = CompressingResponseWrapper.super.getOutputStream();
+                if (compress) {
+                    CompressingResponseWrapper.super.setHeader(HttpHeaders.CONTENT_ENCODING, encodings.get(0));
+                    target = compressor(raw);
+                    compressing = true;
+                } else {
+                    if (contentLength >= 0) {
+                        CompressingResponseWrapper.super.setContentLengthLong(contentLength);
+                    }
+                    target = raw;
+                }
+                if (buffer != null) {
+                    buffer.writeTo(target);
+                    buffer = null;
+                }
+            }
+
+            private OutputStream compressor(OutputStream raw) throws IOException {
+                sink = new DetachableOutputStream(raw);
+                // Pooled buffers and no finalizer keep per-response zstd setup cheap
+                return ZSTD.equals(encodings.get(0))
+                        ? new ZstdOutputStreamNoFinalizer(sink, RecyclingBufferPool.INSTANCE)
+                                .setLevel(properties.zstdLevel())
+                        : new LeveledGzipOutputStream(sink, properties.gzipLevel());
+            }
+
+            /**
+             * After the container's buffer is cleared: drops what is held here too, and swaps
+             * a started compressor for a fresh one, since the old one's header went with the
+             * cleared bytes. Content-Encoding survives a buffer reset, so compression goes on.
+             */
+            void restart() {
+                if (buffer != null) {
+                    buffer.reset();
+                }
+                if (compressing) {
+                    try {
+                        release();
+                        target = compressor(raw());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+
+            /**
+             * After a full reset, which clears Content-Encoding along with the body: drops any
+             * compressor, so whatever is written next (an error page, say) is negotiated afresh
+             * rather than compressed under no header.
+             */
+            void undecide() {
+                if (compressing) {
+                    try {
+                        release();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                buffer = null;
+                target = null;
+                sink = null;
+                encodings = null;
+                compressing = false;
+            }
+
+            /** Closes the compressor to free it, cut off first so its trailer never reaches the response. */
+            private void release() throws IOException {
+                sink.detached = true;
+                target.close();
+            }
+
+            @Override
+            public void flush() throws IOException {
+                // Below the threshold nothing is flushed, so the size decision can still be made
+                if (target != null) {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (target == null) {
+                    decide(false);
+                }
+                if (compressing) {
+                    target.close();
+                } else {
+                    target.flush();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return !decided() || compressing || raw().isReady();
+            }
+
+            /**
+             * Non-blocking writes are passed straight to the container's stream, uncompressed:
+             * the compressors write to it blocking.
+             */
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                if (compressing) {
+                    throw new IllegalStateException("Non-blocking writes cannot start once the response is compressed");
+                }
+                if (!decided()) {
+                    try {
+                        decide(false);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                raw().setWriteListener(writeListener);
+            }
+
+            private ServletOutputStream raw() {
+                try {
+                    return CompressingResponseWrapper.super.getOutputStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /** Passes everything through to the response until detached, and then nothing. */
+    private static final class DetachableOutputStream extends FilterOutputStream {
+        private boolean detached;
+
+        DetachableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!detached) {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!detached) {
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!detached) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!detached) {
+                out.close();
+            }
+        }
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.orderservice.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread talks to. Read by {@link ShardRoutingDataSource} when a
+ * connection is fetched, so it must be set before the transaction touches the database.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
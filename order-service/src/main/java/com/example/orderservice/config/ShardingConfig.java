@@ -0,0 +1,71 @@
+package com.example.orderservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    /**
+     * Replaces the single order database with one pool per {@code app.sharding.shards} entry
+     * when {@code app.sharding.enabled} is set; {@code spring.datasource.*} is ignored then.
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+    static class ShardedDataSourceConfig {
+
+        @Bean
+        public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties properties) {
+            if (properties.shards().isEmpty()) {
+                throw new IllegalStateException("app.sharding.enabled is set but no app.sharding.shards are configured");
+            }
+            List<DataSource> shards = new ArrayList<>();
+            for (int i = 0; i < properties.shards().size(); i++) {
+                ShardingProperties.Shard shard = properties.shards().get(i);
+                HikariDataSource pool = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(shard.url())
+                        .username(shard.username())
+                        .password(shard.password())
+                        .build();
+                pool.setPoolName("shard-" + i);
+                pool.setMaximumPoolSize(shard.maximumPoolSize());
+                shards.add(pool);
+            }
+            ShardRoutingDataSource routing = new ShardRoutingDataSource(shards);
+            routing.afterPropertiesSet();
+            return routing;
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+            // Defer fetching the connection until the first statement, by which time the shard is set
+            return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        }
+
+        /**
+         * Runs the regular Flyway migration once against every shard.
+         */
+        @Bean
+        public FlywayMigrationStrategy shardedMigrationStrategy(ShardingProperties properties) {
+            return flyway -> {
+                for (int i = 0; i < properties.shards().size(); i++) {
+                    ShardContext.callOn(i, flyway::migrate);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Order storage shards. Users hash into a fixed set of virtual buckets and each shard owns
+ * a set of buckets, so moving buckets between shards never changes a user's bucket or an
+ * order id (ids carry their bucket in the low bits).
+ */
+@ConfigurationProperties(prefix = "app.sharding")
+public record ShardingProperties(
+        boolean enabled,
+        @DefaultValue List<Shard> shards) {
+
+    /**
+     * @param url             JDBC url of the shard
+     * @param buckets         bucket ranges owned by this shard, e.g. {@code 0-511} or
+     *                        {@code 0-255,768-1023}; buckets are split evenly when unset
+     */
+    public record Shard(
+            String url,
+            @DefaultValue("sa") String username,
+            @DefaultValue("") String password,
+            @DefaultValue("10") int maximumPoolSize,
+            String buckets) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.orderservice.config;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Set;
+
+/**
+ * Sparse fieldsets: {@code ?fields=id,name} limits every object annotated with
+ * {@code @JsonFilter(SparseFieldsetAdvice.FILTER)} in the response to the listed properties.
+ * Page and cursor envelopes are not filtered. Unknown names are ignored. Applies to JSON and
+ * Smile alike.
+ */
+@RestControllerAdvice
+public class SparseFieldsetAdvice implements ResponseBodyAdvice<Object> {
+    public static final String FILTER = "sparseFieldset";
+    public static final String PARAMETER = "fields";
+
+    /**
+     * Filters for the application's ObjectMapper: everything is serialized unless a request
+     * asks for a subset.
+     */
+    static FilterProvider defaultFilters() {
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    /**
+     * The requested field names, or {@code null} when the caller did not restrict them.
+     */
+    public static Set<String> parse(String fields) {
+        return StringUtils.hasText(fields) ? StringUtils.commaDelimitedListToSet(fields.replace(" ", "")) : null;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+            Class<? extends HttpMessageConverter<?>> converterType, ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        Set<String> fields = parse(servletRequest.getServletRequest().getParameter(PARAMETER));
+        if (fields == null) {
+            return body;
+        }
+        MappingJacksonValue value = body instanceof MappingJacksonValue wrapped ? wrapped : new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider()
+                .addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields))
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+        return value;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * In-memory ranking of the most ordered products over a sliding time window.
+ *
+ * @param window  how far back orders count; the window slides in {@code buckets} steps
+ * @param buckets each holds one slice of the window and is dropped whole once it is too old
+ * @param depth   hash rows per count-min sketch; more rows make a large overestimate less likely
+ * @param width   counters per row; an estimate overshoots by at most about
+ *                {@code 2.7 / width} of the orders in the window
+ * @param topK    most products the ranking keeps and returns
+ */
+@ConfigurationProperties(prefix = "app.trending")
+public record TrendingProperties(
+        @DefaultValue("1h") Duration window,
+        @DefaultValue("12") int buckets,
+        @DefaultValue("4") int depth,
+        @DefaultValue("4096") int width,
+        @DefaultValue("100") int topK) {
+}
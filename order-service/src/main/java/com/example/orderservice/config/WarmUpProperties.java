@@ -0,0 +1,22 @@
+package com.example.orderservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Read traffic the service sends to itself at startup, before it reports ready.
+ *
+ * @param requests total requests to send; enough for the JIT to compile the read paths
+ * @param hotItems newest orders that are fetched one by one besides the list pages, along
+ *                 with their users' orders and summaries
+ * @param timeout  the service reports ready after this long even if requests remain
+ */
+@ConfigurationProperties(prefix = "app.warmup")
+public record WarmUpProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2000") int requests,
+        @DefaultValue("100") int hotItems,
+        @DefaultValue("60s") Duration timeout) {
+}
@@ -0,0 +1,161 @@
+package com.example.orderservice.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sends read traffic to this instance over loopback before it reports ready, so the first
+ * real requests after a deploy do not pay for class loading, JIT compilation, empty
+ * connection pools or cold caches. Requests go through the full HTTP stack and alternate
+ * between JSON and Smile and between gzip and zstd. The summaries of the newest orders'
+ * users are loaded into the summary cache on the way.
+ *
+ * <p>user-service and product-service are called through the load-balanced client as well,
+ * which opens connections to their instances and gives the load balancer its first latency
+ * samples. If either does not answer, only {@code fields=} variants of the order endpoints
+ * are used, since those make no downstream calls.
+ *
+ * <p>Spring Boot switches readiness to ACCEPTING_TRAFFIC only after all runners returned,
+ * so {@code /actuator/health/readiness} reports OUT_OF_SERVICE until this is done. Failed
+ * requests are counted and logged; they never stop the service from starting.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    static final String HEADER = "X-Warm-Up";
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final String LOCAL_FIELDS = "fields=id,userId,productId,quantity,totalAmount,status,orderDate";
+
+    @Autowired
+    private WarmUpProperties properties;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${user.service.url}")
+    private String userServiceUrl;
+
+    @Value("${product.service.url}")
+    private String productServiceUrl;
+
+    private record Step(boolean downstream, String url) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + properties.timeout().toNanos();
+        RestTemplate client = new RestTemplate();
+        String baseUrl = "http://localhost:" + environment.getProperty("local.server.port");
+
+        List<String> downstream = List.of(userServiceUrl + "/users?size=20", productServiceUrl + "/products?size=20");
+        boolean downstreamUp = downstream.stream().allMatch(this::callDownstream);
+        if (!downstreamUp) {
+            logger.warn("user-service or product-service did not answer; warming up without downstream calls");
+        }
+
+        List<Step> steps = new ArrayList<>();
+        steps.add(new Step(false, baseUrl + "/orders?size=20&" + LOCAL_FIELDS));
+        steps.add(new Step(false, baseUrl + "/orders/trending"));
+        if (downstreamUp) {
+            steps.add(new Step(false, baseUrl + "/orders?size=20"));
+            downstream.forEach(url -> steps.add(new Step(true, url)));
+        }
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (JsonNode order : hotOrders(client, baseUrl)) {
+            long id = order.path("id").asLong();
+            steps.add(new Step(false, baseUrl + "/orders/" + id + (downstreamUp ? "" : "?" + LOCAL_FIELDS)));
+            userIds.add(order.path("userId").asLong());
+        }
+        for (Long userId : userIds) {
+            steps.add(new Step(false, baseUrl + "/orders/users/" + userId + "?size=20&" + LOCAL_FIELDS));
+            steps.add(new Step(false, baseUrl + "/orders/users/" + userId + "/summary"));
+        }
+
+        int sent = 0;
+        int failed = 0;
+        while (sent < properties.requests() && System.nanoTime() < deadline) {
+            Step step = steps.get(sent % steps.size());
+            // Each full pass over the steps switches the format and encoding
+            boolean ok = step.downstream() ? callDownstream(step.url()) : send(client, step.url(), sent / steps.size());
+            if (!ok) {
+                failed++;
+            }
+            sent++;
+        }
+        logger.info("Warm-up sent {} requests over {} paths in {} ms, {} failed",
+                sent, steps.size(), (System.nanoTime() - start) / 1_000_000, failed);
+    }
+
+    private boolean send(RestTemplate client, String url, int round) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HEADER, "true");
+        headers.setAccept(List.of(round % 2 == 0 ? MediaType.APPLICATION_JSON : SMILE));
+        headers.set(HttpHeaders.ACCEPT_ENCODING, round / 2 % 2 == 0 ? "gzip" : "zstd");
+        try {
+            client.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+            return true;
+        } catch (RestClientException e) {
+            logger.debug("Warm-up request to {} failed: {}", url, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Calls user-service or product-service the way {@code OrderService} does, so the
+     * negotiated format and its decoding are warmed up too.
+     */
+    private boolean callDownstream(String url) {
+        try {
+            restTemplate.getForObject(url, JsonNode.class);
+            return true;
+        } catch (RestClientException e) {
+            logger.debug("Warm-up request to {} failed: {}", url, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The newest orders, which are the likeliest to be read right after a deploy.
+     */
+    private List<JsonNode> hotOrders(RestTemplate client, String baseUrl) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HEADER, "true");
+        List<JsonNode> orders = new ArrayList<>();
+        try {
+            JsonNode page = client.exchange(baseUrl + "/orders?sort=id,desc&fields=id,userId&size=" + properties.hotItems(),
+                    HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class).getBody();
+            if (page != null) {
+                page.path("content").forEach(orders::add);
+            }
+        } catch (RestClientException e) {
+            logger.warn("Could not load hot orders for warm-up: {}", e.getMessage());
+        }
+        return orders;
+    }
+}
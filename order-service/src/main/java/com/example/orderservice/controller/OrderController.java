@@ -1,8 +1,14 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.config.SparseFieldsetAdvice;
 import com.example.orderservice.dto.OrderRequest;
 import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderSummaryResponse;
+import com.example.orderservice.dto.TrendingProduct;
+import com.example.orderservice.dto.UserOrdersPage;
 import com.example.orderservice.service.OrderService;
+import com.example.orderservice.service.OrderSummaryService;
+import com.example.orderservice.service.TrendingProducts;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,9 +16,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
@@ -21,16 +30,46 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private TrendingProducts trendingProducts;
+
     @GetMapping
-    public Page<OrderResponse> getAllOrders(Pageable pageable) {
-        logger.debug("GET /orders called with pagination");
-        return orderService.getAllOrders(pageable);
+    public Page<OrderResponse> getAllOrders(Pageable pageable,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(name = SparseFieldsetAdvice.PARAMETER, required = false) String fields) {
+        logger.debug("GET /orders called with pagination userId={} fields={}", userId, fields);
+        return orderService.getAllOrders(pageable, userId, SparseFieldsetAdvice.parse(fields));
+    }
+
+    @GetMapping("/users/{userId}")
+    public UserOrdersPage getOrdersByUser(@PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(name = SparseFieldsetAdvice.PARAMETER, required = false) String fields) {
+        logger.debug("GET /orders/users/{} called cursor={} size={}", userId, cursor, size);
+        return orderService.getOrdersByUser(userId, cursor, size, SparseFieldsetAdvice.parse(fields));
+    }
+
+    @GetMapping("/users/{userId}/summary")
+    public OrderSummaryResponse getOrderSummary(@PathVariable Long userId) {
+        logger.debug("GET /orders/users/{}/summary called", userId);
+        return orderSummaryService.getSummary(userId);
+    }
+
+    @GetMapping("/trending")
+    public List<TrendingProduct> getTrendingProducts(@RequestParam(defaultValue = "10") int limit) {
+        logger.debug("GET /orders/trending called limit={}", limit);
+        return trendingProducts.top(limit);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id,
+            @RequestParam(name = SparseFieldsetAdvice.PARAMETER, required = false) String fields) {
         logger.debug("GET /orders/{} called", id);
-        return orderService.getOrderById(id)
+        return orderService.getOrderById(id, SparseFieldsetAdvice.parse(fields))
                 .map(resp -> {
                     logger.debug("GET /orders/{} found", id);
                     return ResponseEntity.ok(resp);
@@ -53,7 +92,10 @@ public class OrderController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         logger.info("DELETE /orders/{} called", id);
-        orderService.deleteOrder(id);
+        if (!orderService.deleteOrder(id)) {
+            return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                    "Order " + id + " is archived and cannot be deleted")).build();
+        }
         logger.info("DELETE /orders/{} completed", id);
         return ResponseEntity.noContent().build();
     }
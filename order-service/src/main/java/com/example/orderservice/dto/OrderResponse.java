@@ -1,8 +1,12 @@
 package com.example.orderservice.dto;
 
+import com.example.orderservice.config.SparseFieldsetAdvice;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+@JsonFilter(SparseFieldsetAdvice.FILTER)
 public record OrderResponse(
         Long id,
         Long userId,
@@ -0,0 +1,18 @@
+package com.example.orderservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An order's columns as selected by the list queries, without hydrating an entity. Field
+ * names match the {@code Order} attributes so page sorts apply to both.
+ */
+public record OrderRow(
+        Long id,
+        Long userId,
+        Long productId,
+        Integer quantity,
+        BigDecimal totalAmount,
+        String status,
+        LocalDateTime orderDate) {
+}
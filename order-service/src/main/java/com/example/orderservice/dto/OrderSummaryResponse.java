@@ -0,0 +1,16 @@
+package com.example.orderservice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * @param orderCount    orders placed by the user, whatever their status, including archived ones
+ * @param totalSpend    sum of those orders' totals
+ * @param lastOrderDate null when the user has no orders
+ */
+public record OrderSummaryResponse(
+        Long userId,
+        long orderCount,
+        BigDecimal totalSpend,
+        LocalDateTime lastOrderDate) {
+}
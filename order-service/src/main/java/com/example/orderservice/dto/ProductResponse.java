@@ -0,0 +1,16 @@
+package com.example.orderservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.math.BigDecimal;
+
+/**
+ * Subset of product-service's product representation that order-service reads.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ProductResponse(
+        Long id,
+        String name,
+        BigDecimal price,
+        Integer stock) {
+}
@@ -0,0 +1,10 @@
+package com.example.orderservice.dto;
+
+/**
+ * @param orders orders for the product in the trending window, as estimated by a count-min
+ *               sketch: never below the true count and only rarely much above it
+ */
+public record TrendingProduct(
+        Long productId,
+        long orders) {
+}
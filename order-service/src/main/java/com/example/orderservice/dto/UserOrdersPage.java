@@ -0,0 +1,9 @@
+package com.example.orderservice.dto;
+
+import java.util.List;
+
+/**
+ * @param nextCursor pass back as {@code cursor} for the next page; null on the last page
+ */
+public record UserOrdersPage(List<OrderResponse> orders, String nextCursor) {
+}
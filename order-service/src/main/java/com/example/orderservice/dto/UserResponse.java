@@ -0,0 +1,12 @@
+package com.example.orderservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Subset of user-service's user representation that order-service reads.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record UserResponse(
+        Long id,
+        String name) {
+}
@@ -1,10 +1,12 @@
 package com.example.orderservice.entity;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -14,9 +16,9 @@ import java.time.LocalDateTime;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-public class Order {
+public class Order implements Persistable<Long> {
+    /** Assigned by {@code OrderIdGenerator} before saving; encodes creation time and shard bucket. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private Long userId;
@@ -26,6 +28,14 @@ public class Order {
     private String status;
     private LocalDateTime orderDate;
 
+    /** Set while the processing pipeline holds the order in PROCESSING. */
+    private LocalDateTime claimedAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
     @PrePersist
     public void prePersist() {
         orderDate = LocalDateTime.now();
@@ -33,4 +43,19 @@ public class Order {
             status = "PENDING";
         }
     }
+
+    @PostPersist
+    @PostLoad
+    void markPersisted() {
+        persisted = true;
+    }
+
+    /**
+     * The id is set before the first save, so Spring Data cannot use it to tell new orders
+     * apart; without this every save would start with a SELECT to decide persist vs merge.
+     */
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
 }
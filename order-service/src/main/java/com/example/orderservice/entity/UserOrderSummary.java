@@ -0,0 +1,31 @@
+package com.example.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of one user's orders, kept on the user's shard and written only through
+ * {@code UserOrderSummaryRepository}'s increment/decrement queries.
+ */
+@Entity
+@Table(name = "user_order_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderSummary {
+    @Id
+    private Long userId;
+
+    private long orderCount;
+    private BigDecimal totalSpend;
+    private LocalDateTime lastOrderDate;
+
+    /** Bumped by every change, so caches can tell which of two copies is newer. */
+    private long revision;
+}
@@ -0,0 +1,18 @@
+package com.example.orderservice.exception;
+
+/**
+ * An order that cannot be placed as requested, answered with 400. Raised on the create path
+ * for every unknown product, so it carries no stack trace; the common cases are shared
+ * instances.
+ */
+public class InvalidOrderException extends RuntimeException {
+
+    public static final InvalidOrderException UNKNOWN_PRODUCT = new InvalidOrderException("Product not found");
+
+    public static final InvalidOrderException INVALID_PRODUCT =
+            new InvalidOrderException("Invalid product response format");
+
+    public InvalidOrderException(String message) {
+        super(message, null, false, false);
+    }
+}
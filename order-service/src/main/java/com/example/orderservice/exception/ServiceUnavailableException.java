@@ -0,0 +1,16 @@
+package com.example.orderservice.exception;
+
+/**
+ * A dependency could not serve the request, answered with 503. Thrown from circuit breaker
+ * fallbacks, which run for every request while a circuit is open, so the instances are
+ * shared and carry no stack trace.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public static final ServiceUnavailableException PRODUCT_SERVICE =
+            new ServiceUnavailableException("Product service is currently unavailable. Please try again later.");
+
+    private ServiceUnavailableException(String message) {
+        super(message, null, false, false);
+    }
+}
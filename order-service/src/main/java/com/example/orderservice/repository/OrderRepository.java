@@ -1,9 +1,81 @@
 package com.example.orderservice.repository;
 
+import com.example.orderservice.dto.OrderRow;
 import com.example.orderservice.entity.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    String SELECT_ROW = "SELECT new com.example.orderservice.dto.OrderRow("
+            + "o.id, o.userId, o.productId, o.quantity, o.totalAmount, o.status, o.orderDate) FROM Order o";
+
+    /**
+     * Order list page selected straight into rows: no entities are hydrated or tracked by the
+     * persistence context. Read-only like {@code findAll}, so it routes to the replica.
+     */
+    @Transactional(readOnly = true)
+    @Query(value = SELECT_ROW, countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<OrderRow> findAllRows(Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query(value = SELECT_ROW + " WHERE o.userId = :userId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.userId = :userId")
+    Page<OrderRow> findRowsByUserId(Long userId, Pageable pageable);
+
+    /** Keyset page over one user's orders, newest id first, served by idx_orders_user_id_id. */
+    @Transactional(readOnly = true)
+    @Query(SELECT_ROW + " WHERE o.userId = :userId AND o.id < :beforeId ORDER BY o.id DESC")
+    List<OrderRow> findRowsByUserIdBefore(Long userId, long beforeId, Limit limit);
+
+    /**
+     * Locks up to {@code limit} orders placed before {@code cutoff}, oldest ids first, skipping
+     * rows another instance's archival run holds. Must run inside the transaction that
+     * archives and deletes them.
+     */
+    @Query(value = "SELECT id FROM orders WHERE order_date < :cutoff"
+            + " ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockArchivableIds(LocalDateTime cutoff, int limit);
+
+    /**
+     * Whether any order is waiting to be claimed. Read-only, so an idle poll takes no locks
+     * and does not count as a write for replica routing; a claim still rechecks under lock.
+     */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM orders"
+            + " WHERE status = 'PENDING' OR (status = 'PROCESSING' AND claimed_at < :staleBefore))", nativeQuery = true)
+    boolean hasClaimable(LocalDateTime staleBefore);
+
+    /**
+     * Locks up to {@code limit} claimable orders, skipping rows another instance has locked.
+     * Must run inside the transaction that marks them PROCESSING.
+     */
+    @Query(value = "SELECT id FROM orders"
+            + " WHERE status = 'PENDING' OR (status = 'PROCESSING' AND claimed_at < :staleBefore)"
+            + " ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockClaimableIds(LocalDateTime staleBefore, int limit);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = 'PROCESSING', o.claimedAt = :claimedAt WHERE o.id IN :ids")
+    int markProcessing(Collection<Long> ids, LocalDateTime claimedAt);
+
+    /** Moves claimed orders on; orders whose claim was taken over in the meantime are left alone. */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.claimedAt = null"
+            + " WHERE o.id IN :ids AND o.status = 'PROCESSING' AND o.claimedAt = :claimedAt")
+    int completeClaim(Collection<Long> ids, LocalDateTime claimedAt, String status);
+
+    @Query("SELECT COUNT(o), MIN(o.orderDate) FROM Order o WHERE o.status = 'PENDING'")
+    List<Object[]> pendingBacklog();
 }
@@ -0,0 +1,44 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.entity.UserOrderSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface UserOrderSummaryRepository extends JpaRepository<UserOrderSummary, Long> {
+
+    /**
+     * Adds an order to its user's totals, creating the row on the user's first order. Two
+     * first orders in flight at once both take the insert branch; the later one fails on the
+     * key and is retried by {@code OrderService}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "MERGE INTO user_order_summaries s"
+            + " USING (VALUES (CAST(:userId AS BIGINT), CAST(:amount AS DECIMAL(19, 2)), CAST(:orderDate AS TIMESTAMP)))"
+            + " AS o(user_id, amount, order_date) ON s.user_id = o.user_id"
+            + " WHEN MATCHED THEN UPDATE SET order_count = s.order_count + 1,"
+            + " total_spend = s.total_spend + o.amount,"
+            + " last_order_date = GREATEST(COALESCE(s.last_order_date, o.order_date), o.order_date),"
+            + " revision = s.revision + 1"
+            + " WHEN NOT MATCHED THEN INSERT (user_id, order_count, total_spend, last_order_date, revision)"
+            + " VALUES (o.user_id, 1, o.amount, o.order_date, 1)", nativeQuery = true)
+    int addOrder(Long userId, BigDecimal amount, LocalDateTime orderDate);
+
+    /**
+     * Takes a deleted order out of the totals. Must run after the order row is gone: when it
+     * was the user's latest order, the last order date falls back to the newest remaining one.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE user_order_summaries SET order_count = order_count - 1,"
+            + " total_spend = total_spend - :amount,"
+            + " last_order_date = CASE WHEN last_order_date = :orderDate"
+            + " THEN (SELECT MAX(order_date) FROM orders WHERE user_id = :userId) ELSE last_order_date END,"
+            + " revision = revision + 1"
+            + " WHERE user_id = :userId", nativeQuery = true)
+    int removeOrder(Long userId, BigDecimal amount, LocalDateTime orderDate);
+}
@@ -0,0 +1,150 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.ArchiveProperties;
+import com.example.orderservice.entity.Order;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Read side of the order archive: every segment file in {@code app.archive.directory},
+ * memory-mapped, newest first. Segments are never modified, only added, by this instance or
+ * another one sharing the directory. The columns of the
+ * most recently read segments are kept decompressed, so repeated lookups into a segment
+ * cost a binary search rather than a decompression of the whole file.
+ */
+@Component
+public class OrderArchive {
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchive.class);
+    private static final String SUFFIX = ".seg";
+    private static final Duration RECENT = Duration.ofSeconds(2);
+
+    private final ArchiveProperties properties;
+    private final List<OrderSegment> segments = new CopyOnWriteArrayList<>();
+    /** File names of the segments in {@link #segments}. */
+    private final Set<Path> opened = ConcurrentHashMap.newKeySet();
+    private FileTime scannedAt;
+    private final Cache<OrderSegment, OrderSegment.Columns> decoded;
+
+    public OrderArchive(ArchiveProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.decoded = Caffeine.newBuilder()
+                .maximumSize(properties.decodedSegments())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, decoded, "orderArchiveSegments");
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!properties.enabled()) {
+            return;
+        }
+        Files.createDirectories(properties.directory());
+        rescan();
+        logger.info("Opened order archive {} with {} segments", properties.directory(), segments.size());
+    }
+
+    /**
+     * Looks the order up in the segments, newest first. On a miss, segments other instances
+     * have added to the shared directory since the last look are opened and searched too,
+     * so an order archived (and deleted from the table) elsewhere is found at once.
+     */
+    public Optional<Order> findById(long id) {
+        Optional<Order> order = find(id);
+        if (order.isEmpty() && properties.enabled() && rescan()) {
+            order = find(id);
+        }
+        return order;
+    }
+
+    private Optional<Order> find(long id) {
+        for (OrderSegment segment : segments) {
+            int row = segment.rowOf(id);
+            if (row >= 0) {
+                return Optional.of(decoded.get(segment, OrderSegment::decode).order(row, id));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Opens segment files not seen before; returns whether there were any. The directory is
+     * only listed when its modification time has changed, so a miss on an id that was never
+     * archived costs one stat call.
+     */
+    private synchronized boolean rescan() {
+        Path directory = properties.directory();
+        try {
+            FileTime modified = Files.getLastModifiedTime(directory);
+            if (modified.equals(scannedAt)) {
+                return false;
+            }
+            // A file added within the file system's timestamp granularity of this listing
+            // could leave the time unchanged, so a recent time is checked again next miss
+            scannedAt = modified.toInstant().isBefore(Instant.now().minus(RECENT)) ? modified : null;
+            List<OrderSegment> added = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    if (!opened.contains(file.getFileName())) {
+                        added.add(OrderSegment.open(file));
+                        opened.add(file.getFileName());
+                    }
+                }
+            }
+            if (added.isEmpty()) {
+                return false;
+            }
+            segments.addAll(added);
+            // Names start with the write time, so this puts the newest segment first
+            segments.sort(Comparator.comparing((OrderSegment segment) -> segment.file().getFileName()).reversed());
+            return true;
+        } catch (IOException e) {
+            logger.warn("Failed to scan order archive {}: {}", directory, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes {@code orders} as a new segment and makes it readable. Returns only once the
+     * file is durable, so the caller may delete the rows afterwards.
+     */
+    public void append(List<Order> orders) {
+        List<Order> sorted = orders.stream().sorted(Comparator.comparing(Order::getId)).toList();
+        Path file = properties.directory().resolve(String.format("%013d-%019d%s",
+                System.currentTimeMillis(), sorted.get(0).getId(), SUFFIX));
+        try {
+            OrderSegment segment = OrderSegment.write(file, sorted, properties.compressionLevel());
+            synchronized (this) {
+                // A rescan may have opened the file already, between its move into place and here
+                if (opened.add(file.getFileName())) {
+                    segments.add(0, segment);
+                }
+            }
+            logger.info("Archived {} orders to {} ({} bytes)", segment.rows(), file.getFileName(), Files.size(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive segment " + file, e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.ArchiveProperties;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves orders older than {@code app.archive.retention} from the hot table into the
+ * {@link OrderArchive}, one segment per batch and shard. Each batch is claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, written and deleted in one transaction, so instances
+ * sharing the database archive disjoint batches. A crash after the segment is on disk but
+ * before the commit leaves the rows in both places; reads prefer the table, and the next
+ * run simply archives them again.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.archive", name = "enabled", havingValue = "true")
+public class OrderArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+    private static final int DELETE_CHUNK = 1000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderShards orderShards;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private ArchiveProperties properties;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Scheduled(cron = "${app.archive.cron:0 15 * * * *}")
+    public void archiveOldOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.retention());
+        long archived = 0;
+        for (int i = 0; i < orderShards.shardCount(); i++) {
+            int shard = i;
+            int batch;
+            do {
+                batch = orderShards.onShard(shard, () -> transactionTemplate.execute(status -> archiveBatch(cutoff)));
+                archived += batch;
+            } while (batch == properties.segmentRows());
+        }
+        if (archived > 0) {
+            logger.info("Archived {} orders placed before {}", archived, cutoff);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.lockArchivableIds(cutoff, properties.segmentRows());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        orderArchive.append(orderRepository.findAllById(ids));
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK) {
+            orderRepository.deleteAllByIdInBatch(ids.subList(from, Math.min(from + DELETE_CHUNK, ids.size())));
+        }
+        return ids.size();
+    }
+}
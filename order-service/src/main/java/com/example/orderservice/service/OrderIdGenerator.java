@@ -0,0 +1,107 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.OrderIdProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hands out time-ordered order ids without touching the database. From the top, an id holds
+ * 41 bits of milliseconds since {@link #EPOCH}, a {@link #NODE_BITS}-bit node id, a
+ * {@link #SEQUENCE_BITS}-bit sequence within the millisecond and the user's shard bucket in
+ * the low {@link OrderShards#BUCKET_BITS} bits. Ids from one instance only grow; ids from
+ * different instances sort by creation time to the millisecond.
+ *
+ * <p>The last timestamp and sequence handed out share one {@link AtomicLong}, advanced with a
+ * compare-and-set. A 129th id within a millisecond, or a clock that steps back, takes the
+ * next value after the last one instead of waiting, so the clock is only borrowed from while
+ * ids are drawn faster than 128 per millisecond.
+ *
+ * <p>At startup the generator continues after the newest stored id. Ids from the earlier
+ * {@code order_id_seq} allocator are below 2^44 and so below any id this generates, which
+ * keeps "newest id first" ordering and cursors intact across the change. The same step
+ * covers a clock that is behind after a restart.
+ */
+@Component
+public class OrderIdGenerator {
+    public static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+    public static final int NODE_BITS = 5;
+    public static final int SEQUENCE_BITS = 7;
+    public static final int NODES = 1 << NODE_BITS;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int SEQUENCE_SHIFT = OrderShards.BUCKET_BITS;
+    private static final int NODE_SHIFT = SEQUENCE_SHIFT + SEQUENCE_BITS;
+    private static final int TIMESTAMP_SHIFT = NODE_SHIFT + NODE_BITS;
+    /** The trailing ordinal of a StatefulSet pod's hostname. */
+    private static final Pattern POD_ORDINAL = Pattern.compile("-(\\d+)$");
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdGenerator.class);
+
+    private final long node;
+    private final LongSupplier clock;
+
+    /** {@code (milliseconds since EPOCH << SEQUENCE_BITS) | sequence} of the last id handed out. */
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public OrderIdGenerator(OrderIdProperties properties, JdbcTemplate jdbcTemplate, OrderShards orderShards) {
+        this(nodeId(properties), System::currentTimeMillis);
+        orderShards.onAllShards(shard ->
+                        jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM orders", Long.class))
+                .forEach(this::continueAfter);
+        logger.info("Order ids from node {}", node);
+    }
+
+    public OrderIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId >= NODES) {
+            throw new IllegalStateException("Order id node " + nodeId + " is outside 0-" + (NODES - 1));
+        }
+        this.node = nodeId;
+        this.clock = clock;
+    }
+
+    public long nextId(int bucket) {
+        long now = (clock.getAsLong() - EPOCH.toEpochMilli()) << SEQUENCE_BITS;
+        long next = last.accumulateAndGet(now, (previous, time) -> Math.max(time, previous + 1));
+        return (next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT
+                | node << NODE_SHIFT
+                | (next & SEQUENCE_MASK) << SEQUENCE_SHIFT
+                | bucket;
+    }
+
+    /**
+     * Makes every later id sort after {@code id} on this node.
+     */
+    void continueAfter(long id) {
+        long stored = (id >>> TIMESTAMP_SHIFT) << SEQUENCE_BITS | (id >>> SEQUENCE_SHIFT) & SEQUENCE_MASK;
+        long ahead = (id >>> TIMESTAMP_SHIFT) + EPOCH.toEpochMilli() - clock.getAsLong();
+        if (ahead > 0) {
+            logger.warn("Newest order id {} is {} ms ahead of the clock; new ids continue after it", id, ahead);
+        }
+        last.accumulateAndGet(stored, Math::max);
+    }
+
+    private static int nodeId(OrderIdProperties properties) {
+        if (properties.nodeId() != null) {
+            return properties.nodeId();
+        }
+        String hostname = System.getenv("HOSTNAME");
+        Matcher ordinal = POD_ORDINAL.matcher(hostname == null ? "" : hostname);
+        // A Deployment pod's random five-character suffix never passes for an ordinal
+        if (ordinal.find() && ordinal.group(1).length() <= 2 && Integer.parseInt(ordinal.group(1)) < NODES) {
+            return Integer.parseInt(ordinal.group(1));
+        }
+        logger.info("No app.order-id.node-id or pod ordinal; using node 0, which must not be shared "
+                + "with another instance on the same database");
+        return 0;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.ProcessingProperties;
+import com.example.orderservice.dto.ProductResponse;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Moves orders from PENDING to CONFIRMED or REJECTED in the background.
+ *
+ * <p>Each round claims a batch per shard ({@code FOR UPDATE SKIP LOCKED}, so instances never
+ * block on or double-claim each other's rows), looks up every distinct product of the batch
+ * in parallel, and confirms orders in id order while the product's stock covers them and
+ * their total still matches the current price. Outcomes are written back with one UPDATE per
+ * status. Orders whose product lookup failed go back to PENDING for the next round.
+ *
+ * <p>Stock is checked, not reserved: orders in one batch share the stock snapshot, but
+ * batches on other shards or instances do not see each other's confirmations.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.processing", name = "enabled", havingValue = "true")
+public class OrderProcessingPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(OrderProcessingPipeline.class);
+
+    static final String PENDING = "PENDING";
+    static final String CONFIRMED = "CONFIRMED";
+    static final String REJECTED = "REJECTED";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderShards orderShards;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ThreadPoolTaskExecutor orderProcessingExecutor;
+
+    @Autowired
+    private ProcessingProperties properties;
+
+    @Value("${product.service.url}")
+    private String productServiceUrl;
+
+    private final Counter confirmed;
+    private final Counter rejected;
+    private final Counter retried;
+    private final Timer batchTimer;
+    private final Timer queueAge;
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+
+    public OrderProcessingPipeline(MeterRegistry registry) {
+        this.confirmed = registry.counter("orders.processing.completed", "outcome", "confirmed");
+        this.rejected = registry.counter("orders.processing.completed", "outcome", "rejected");
+        this.retried = registry.counter("orders.processing.completed", "outcome", "retried");
+        this.batchTimer = Timer.builder("orders.processing.batch")
+                .description("Time to confirm one claimed batch")
+                .register(registry);
+        this.queueAge = Timer.builder("orders.processing.queue.age")
+                .description("Time from order placement to being claimed")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        registry.gauge("orders.processing.pending", pendingCount);
+        registry.gauge("orders.processing.pending.oldest.age.seconds", oldestPendingMillis,
+                millis -> millis.get() / 1000.0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.processing.poll-interval:500}")
+    public void processPendingOrders() {
+        for (int i = 0; i < orderShards.shardCount(); i++) {
+            int shard = i;
+            int completed;
+            do {
+                completed = orderShards.onShard(shard, this::processBatch);
+            } while (completed == properties.batchSize());
+        }
+        refreshBacklog();
+    }
+
+    /**
+     * Claims and confirms one batch on the current shard. Returns how many orders were
+     * confirmed or rejected, so a round stops draining once a downstream failure sends orders
+     * back to PENDING.
+     */
+    private int processBatch() {
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (!orderRepository.hasClaimable(claimedAt.minus(properties.claimTimeout()))) {
+            return 0;
+        }
+        List<Order> batch = transactionTemplate.execute(status -> {
+            List<Long> ids = orderRepository.lockClaimableIds(
+                    claimedAt.minus(properties.claimTimeout()), properties.batchSize());
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            orderRepository.markProcessing(ids, claimedAt);
+            return new ArrayList<>(orderRepository.findAllById(ids));
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        Timer.Sample sample = Timer.start();
+        for (Order order : batch) {
+            if (order.getOrderDate() != null) {
+                queueAge.record(Duration.between(order.getOrderDate(), claimedAt));
+            }
+        }
+        Map<Long, ProductResponse> products = fetchProducts(batch);
+
+        Map<String, List<Long>> outcomes = new HashMap<>();
+        Map<Long, Integer> remainingStock = new HashMap<>();
+        batch.sort(Comparator.comparing(Order::getId));
+        for (Order order : batch) {
+            String outcome;
+            if (!products.containsKey(order.getProductId())) {
+                outcome = PENDING;
+            } else {
+                ProductResponse product = products.get(order.getProductId());
+                outcome = confirm(order, product, remainingStock) ? CONFIRMED : REJECTED;
+            }
+            outcomes.computeIfAbsent(outcome, key -> new ArrayList<>()).add(order.getId());
+        }
+
+        transactionTemplate.executeWithoutResult(status -> outcomes.forEach(
+                (outcome, ids) -> orderRepository.completeClaim(ids, claimedAt, outcome)));
+        confirmed.increment(outcomes.getOrDefault(CONFIRMED, List.of()).size());
+        rejected.increment(outcomes.getOrDefault(REJECTED, List.of()).size());
+        retried.increment(outcomes.getOrDefault(PENDING, List.of()).size());
+        long nanos = sample.stop(batchTimer);
+        logger.debug("Processed {} orders in {} ms: {}", batch.size(), nanos / 1_000_000,
+                outcomes.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().size())));
+        return batch.size() - outcomes.getOrDefault(PENDING, List.of()).size();
+    }
+
+    /**
+     * Looks up each distinct product once, in parallel. Products that could not be fetched
+     * are missing from the result; a product that does not exist maps to {@code null}.
+     */
+    private Map<Long, ProductResponse> fetchProducts(List<Order> batch) {
+        Map<Long, CompletableFuture<ProductResponse>> lookups = new HashMap<>();
+        for (Order order : batch) {
+            lookups.computeIfAbsent(order.getProductId(), productId -> CompletableFuture.supplyAsync(
+                    () -> restTemplate.getForObject(productServiceUrl + "/products/" + productId,
+                            ProductResponse.class),
+                    orderProcessingExecutor));
+        }
+        Map<Long, ProductResponse> products = new HashMap<>();
+        lookups.forEach((productId, lookup) -> {
+            try {
+                products.put(productId, lookup.join());
+            } catch (Exception e) {
+                if (e.getCause() instanceof HttpClientErrorException.NotFound) {
+                    products.put(productId, null);
+                } else {
+                    logger.warn("Product lookup failed for productId={}, retrying its orders later: {}",
+                            productId, e.getMessage());
+                }
+            }
+        });
+        return products;
+    }
+
+    private boolean confirm(Order order, ProductResponse product, Map<Long, Integer> remainingStock) {
+        if (product == null || product.price() == null || product.stock() == null) {
+            logger.debug("Rejecting order id={}: product {} not found", order.getId(), order.getProductId());
+            return false;
+        }
+        BigDecimal expectedTotal = product.price().multiply(BigDecimal.valueOf(order.getQuantity()));
+        if (order.getTotalAmount() == null || expectedTotal.compareTo(order.getTotalAmount()) != 0) {
+            logger.debug("Rejecting order id={}: total {} no longer matches price {}",
+                    order.getId(), order.getTotalAmount(), product.price());
+            return false;
+        }
+        int stock = remainingStock.getOrDefault(order.getProductId(), product.stock());
+        if (order.getQuantity() > stock) {
+            logger.debug("Rejecting order id={}: quantity {} exceeds stock {}", order.getId(), order.getQuantity(), stock);
+            return false;
+        }
+        // Earlier orders in the batch use up the stock snapshot before later ones
+        remainingStock.put(order.getProductId(), stock - order.getQuantity());
+        return true;
+    }
+
+    private void refreshBacklog() {
+        long count = 0;
+        LocalDateTime oldest = null;
+        for (Object[] row : orderShards.onAllShards(shard -> orderRepository.pendingBacklog().get(0))) {
+            count += ((Number) row[0]).longValue();
+            LocalDateTime shardOldest = (LocalDateTime) row[1];
+            if (shardOldest != null && (oldest == null || shardOldest.isBefore(oldest))) {
+                oldest = shardOldest;
+            }
+        }
+        pendingCount.set(count);
+        oldestPendingMillis.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+    }
+}
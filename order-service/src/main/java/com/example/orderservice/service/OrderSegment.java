@@ -0,0 +1,247 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.entity.Order;
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One immutable, memory-mapped archive file holding a batch of orders column by column.
+ *
+ * <pre>
+ * header   magic, version, rows, min id, max id, then (offset, length, raw length) per column
+ * ids      sorted longs, stored uncompressed so lookups binary-search the mapping directly
+ * columns  user id, product id, quantity, total amount (cents), status (dictionary codes),
+ *          order date (epoch micros), each a zstd frame
+ * </pre>
+ *
+ * Null amounts and dates are stored as {@link Long#MIN_VALUE}, a null status as code -1.
+ */
+final class OrderSegment {
+    private static final int MAGIC = 0x4f524453; // "ORDS"
+    private static final int VERSION = 1;
+    private static final long NULL = Long.MIN_VALUE;
+
+    private static final int USER_ID = 0;
+    private static final int PRODUCT_ID = 1;
+    private static final int QUANTITY = 2;
+    private static final int TOTAL_AMOUNT = 3;
+    private static final int STATUS = 4;
+    private static final int ORDER_DATE = 5;
+    private static final int COLUMNS = 6;
+    private static final int DESCRIPTORS_OFFSET = 4 + 4 + 4 + 8 + 8;
+    private static final int HEADER_SIZE = DESCRIPTORS_OFFSET + COLUMNS * (8 + 4 + 4);
+
+    private final Path file;
+    private final MappedByteBuffer mapped;
+    private final int rows;
+    private final long minId;
+    private final long maxId;
+
+    private OrderSegment(Path file, MappedByteBuffer mapped) {
+        if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not an order archive segment: " + file);
+        }
+        this.file = file;
+        this.mapped = mapped;
+        this.rows = mapped.getInt(8);
+        this.minId = mapped.getLong(12);
+        this.maxId = mapped.getLong(20);
+    }
+
+    static OrderSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new OrderSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes {@code orders} (sorted by id) to {@code file} via a temporary file, so a
+     * crash never leaves a partial segment behind.
+     */
+    static OrderSegment write(Path file, List<Order> orders, int compressionLevel) throws IOException {
+        int rows = orders.size();
+        ByteBuffer ids = ByteBuffer.allocate(rows * 8);
+        ByteBuffer[] columns = {
+            ByteBuffer.allocate(rows * 8),
+            ByteBuffer.allocate(rows * 8),
+            ByteBuffer.allocate(rows * 4),
+            ByteBuffer.allocate(rows * 8),
+            null,
+            ByteBuffer.allocate(rows * 8)
+        };
+        Map<String, Byte> dictionary = new HashMap<>();
+        List<String> statuses = new ArrayList<>();
+        byte[] statusCodes = new byte[rows];
+
+        for (int i = 0; i < rows; i++) {
+            Order order = orders.get(i);
+            ids.putLong(order.getId());
+            columns[USER_ID].putLong(order.getUserId());
+            columns[PRODUCT_ID].putLong(order.getProductId());
+            columns[QUANTITY].putInt(order.getQuantity());
+            columns[TOTAL_AMOUNT].putLong(order.getTotalAmount() == null
+                    ? NULL : order.getTotalAmount().movePointRight(2).longValueExact());
+            columns[ORDER_DATE].putLong(order.getOrderDate() == null
+                    ? NULL : ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), order.getOrderDate()));
+            if (order.getStatus() == null) {
+                statusCodes[i] = -1;
+            } else {
+                statusCodes[i] = dictionary.computeIfAbsent(order.getStatus(), status -> {
+                    if (statuses.size() == Byte.MAX_VALUE) {
+                        throw new IllegalStateException("More than " + Byte.MAX_VALUE + " distinct order statuses");
+                    }
+                    statuses.add(status);
+                    return (byte) (statuses.size() - 1);
+                });
+            }
+        }
+        columns[STATUS] = encodeStatuses(statuses, statusCodes);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(rows)
+                .putLong(orders.get(0).getId())
+                .putLong(orders.get(rows - 1).getId());
+        long offset = HEADER_SIZE + ids.capacity();
+        byte[][] compressed = new byte[COLUMNS][];
+        for (int c = 0; c < COLUMNS; c++) {
+            compressed[c] = Zstd.compress(columns[c].array(), compressionLevel);
+            header.putLong(offset).putInt(compressed[c].length).putInt(columns[c].capacity());
+            offset += compressed[c].length;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(header.flip());
+            channel.write(ids.flip());
+            for (byte[] column : compressed) {
+                channel.write(ByteBuffer.wrap(column));
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        return open(file);
+    }
+
+    Path file() {
+        return file;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    /** The row holding {@code id}, found by binary search over the mapped ids, or -1. */
+    int rowOf(long id) {
+        if (id < minId || id > maxId) {
+            return -1;
+        }
+        int low = 0;
+        int high = rows - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long candidate = mapped.getLong(HEADER_SIZE + mid * 8);
+            if (candidate < id) {
+                low = mid + 1;
+            } else if (candidate > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decompresses every column. Costs a pass over the whole segment, so callers keep the
+     * result for further lookups.
+     */
+    Columns decode() {
+        ByteBuffer userIds = column(USER_ID);
+        ByteBuffer productIds = column(PRODUCT_ID);
+        ByteBuffer quantities = column(QUANTITY);
+        ByteBuffer totals = column(TOTAL_AMOUNT);
+        ByteBuffer statuses = column(STATUS);
+        ByteBuffer dates = column(ORDER_DATE);
+        Columns columns = new Columns(new long[rows], new long[rows], new int[rows], new long[rows],
+                new String[rows], new long[rows]);
+        userIds.asLongBuffer().get(columns.userIds());
+        productIds.asLongBuffer().get(columns.productIds());
+        quantities.asIntBuffer().get(columns.quantities());
+        totals.asLongBuffer().get(columns.totalCents());
+        dates.asLongBuffer().get(columns.orderDateMicros());
+        decodeStatuses(statuses, columns.statuses());
+        return columns;
+    }
+
+    /** A segment's columns, decompressed; indexed by row. */
+    record Columns(long[] userIds, long[] productIds, int[] quantities, long[] totalCents, String[] statuses,
+            long[] orderDateMicros) {
+
+        Order order(int row, long id) {
+            Order order = new Order();
+            order.setId(id);
+            order.setUserId(userIds[row]);
+            order.setProductId(productIds[row]);
+            order.setQuantity(quantities[row]);
+            order.setTotalAmount(totalCents[row] == NULL ? null : BigDecimal.valueOf(totalCents[row], 2));
+            order.setStatus(statuses[row]);
+            long micros = orderDateMicros[row];
+            order.setOrderDate(micros == NULL ? null : LocalDateTime.ofEpochSecond(
+                    Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC));
+            return order;
+        }
+    }
+
+    private ByteBuffer column(int column) {
+        int descriptor = DESCRIPTORS_OFFSET + column * 16;
+        long offset = mapped.getLong(descriptor);
+        byte[] compressed = new byte[mapped.getInt(descriptor + 8)];
+        mapped.get(Math.toIntExact(offset), compressed);
+        return ByteBuffer.wrap(Zstd.decompress(compressed, mapped.getInt(descriptor + 12)));
+    }
+
+    private static ByteBuffer encodeStatuses(List<String> statuses, byte[] codes) {
+        List<byte[]> encoded = statuses.stream().map(s -> s.getBytes(StandardCharsets.UTF_8)).toList();
+        int size = 4 + encoded.stream().mapToInt(bytes -> 2 + bytes.length).sum() + codes.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+        return buffer.put(codes);
+    }
+
+    private static void decodeStatuses(ByteBuffer column, String[] statuses) {
+        int entries = column.getInt(0);
+        String[] dictionary = new String[entries];
+        int position = 4;
+        for (int i = 0; i < entries; i++) {
+            int length = column.getShort(position);
+            dictionary[i] = new String(column.array(), position + 2, length, StandardCharsets.UTF_8);
+            position += 2 + length;
+        }
+        for (int row = 0; row < statuses.length; row++) {
+            byte code = column.get(position + row);
+            statuses[row] = code < 0 ? null : dictionary[code];
+        }
+    }
+}
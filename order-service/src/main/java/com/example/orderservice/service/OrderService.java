@@ -2,31 +2,78 @@ package com.example.orderservice.service;
 
 import com.example.orderservice.dto.OrderRequest;
 import com.example.orderservice.dto.OrderResponse;
+import com.example.orderservice.dto.OrderRow;
+import com.example.orderservice.dto.ProductResponse;
+import com.example.orderservice.dto.UserOrdersPage;
+import com.example.orderservice.dto.UserResponse;
 import com.example.orderservice.entity.Order;
+import com.example.orderservice.exception.InvalidOrderException;
+import com.example.orderservice.exception.ServiceUnavailableException;
 import com.example.orderservice.repository.OrderRepository;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
-
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 @Service
 public class OrderService {
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderShards orderShards;
+
+    @Autowired
+    private OrderIdGenerator orderIdGenerator;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private TrendingProducts trendingProducts;
+
+    // Present only when app.order-batching.enabled is set; inserts then share transactions
+    @Autowired(required = false)
+    private OrderWriteBatcher orderWriteBatcher;
+
+    @Autowired
+    private OrderWriter orderWriter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Autowired
     private RestTemplate restTemplate;
 
@@ -36,20 +83,55 @@ public class OrderService {
     @Value("${product.service.url}")
     private String productServiceUrl;
 
-    public Page<OrderResponse> getAllOrders(@NonNull Pageable pageable) {
-        logger.debug("Fetching orders with pagination");
-        Page<Order> page = orderRepository.findAll(pageable);
+    /**
+     * @param fields response fields the caller asked for, or null for all; names and products
+     *               are only looked up downstream when requested
+     */
+    public Page<OrderResponse> getAllOrders(@NonNull Pageable pageable, Long userId, Set<String> fields) {
+        logger.debug("Fetching orders with pagination userId={}", userId);
+        // Not @Transactional: the repository's read-only transaction already routes to the replica,
+        // and a service-level one would hold that connection through the downstream calls below
+        Page<OrderRow> page;
+        if (userId != null) {
+            page = orderShards.onShard(orderShards.shardOfUser(userId),
+                    () -> orderRepository.findRowsByUserId(userId, pageable));
+        } else if (orderShards.shardCount() == 1) {
+            page = orderRepository.findAllRows(pageable);
+        } else {
+            page = findAllAcrossShards(pageable);
+        }
         logger.debug("Fetched {} orders", page.getNumberOfElements());
-        return page.map(this::mapToOrderResponse);
+        return page.map(order -> mapToOrderResponse(order, fields));
+    }
+
+    /**
+     * One user's orders, newest id first, paged by cursor on the (user_id, id) index so every
+     * page costs the same however deep the caller walks. Archived orders are not included.
+     */
+    public UserOrdersPage getOrdersByUser(long userId, String cursor, int size, Set<String> fields) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        long beforeId = cursor == null ? Long.MAX_VALUE : decodeCursor(cursor);
+        logger.debug("Fetching orders for userId={} before id={}", userId, beforeId);
+        // One extra row tells whether there is a next page
+        List<OrderRow> rows = orderShards.onShard(orderShards.shardOfUser(userId),
+                () -> orderRepository.findRowsByUserIdBefore(userId, beforeId, Limit.of(size + 1)));
+        boolean more = rows.size() > size;
+        List<OrderRow> page = more ? rows.subList(0, size) : rows;
+        return new UserOrdersPage(page.stream().map(order -> mapToOrderResponse(order, fields)).toList(),
+                more ? encodeCursor(page.get(size - 1).id()) : null);
     }
 
-    public Optional<OrderResponse> getOrderById(Long id) {
+    public Optional<OrderResponse> getOrderById(Long id, Set<String> fields) {
         if (id == null) {
             return Optional.empty();
         }
         logger.debug("Fetching order by id={}", id);
-        Optional<OrderResponse> result = orderRepository.findById(id)
-                .map(this::mapToOrderResponse);
+        Optional<OrderResponse> result = orderShards.onShard(orderShards.shardOfOrder(id),
+                () -> orderRepository.findById(id))
+                .or(() -> orderArchive.findById(id))
+                .map(order -> mapToOrderResponse(toRow(order), fields));
         if (result.isPresent()) {
             logger.debug("Found order id={}", id);
         } else {
@@ -58,92 +140,225 @@ public class OrderService {
         return result;
     }
 
+    /**
+     * Prices and saves an order. Only product-service failures count against the circuit
+     * breaker and reach the 503 fallback; an unknown product is the caller's error (400), and
+     * a failure to save is this service's (500).
+     */
     @CircuitBreaker(name = "productService", fallbackMethod = "createOrderFallback")
     public OrderResponse createOrder(OrderRequest orderRequest) {
         logger.info("Creating order for userId={} productId={} quantity={}",
                 orderRequest.userId(), orderRequest.productId(), orderRequest.quantity());
+        ProductResponse product;
         try {
-            Object product = restTemplate.getForObject(
+            product = restTemplate.getForObject(
                     productServiceUrl + "/products/" + orderRequest.productId(),
-                    Object.class);
+                    ProductResponse.class);
+        } catch (HttpClientErrorException.NotFound e) {
+            logger.debug("Product {} not found", orderRequest.productId());
+            throw InvalidOrderException.UNKNOWN_PRODUCT;
+        } catch (HttpClientErrorException e) {
+            logger.warn("Product service rejected productId={}: {}", orderRequest.productId(), e.getStatusCode());
+            throw new InvalidOrderException("Failed to retrieve product: " + e.getStatusCode());
+        } catch (IllegalStateException e) {
+            // The load balancer had no product-service instance to call
+            throw new ResourceAccessException(e.getMessage());
+        }
 
-            if (!(product instanceof Map<?, ?> productMap)) {
-                logger.error("Invalid product response format for productId={}", orderRequest.productId());
-                throw new IllegalArgumentException("Invalid product response format");
-            }
+        if (product == null || product.price() == null) {
+            logger.warn("Invalid product response format for productId={}", orderRequest.productId());
+            throw InvalidOrderException.INVALID_PRODUCT;
+        }
 
-            Double price = ((Number) productMap.get("price")).doubleValue();
-            BigDecimal totalAmount = BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(orderRequest.quantity()));
+        BigDecimal totalAmount = product.price().multiply(BigDecimal.valueOf(orderRequest.quantity()));
 
-            Order order = new Order();
-            order.setUserId(orderRequest.userId());
-            order.setProductId(orderRequest.productId());
-            order.setQuantity(orderRequest.quantity());
-            order.setTotalAmount(totalAmount);
+        int bucket = orderShards.bucketOfUser(orderRequest.userId());
+        Order order = new Order();
+        order.setId(orderIdGenerator.nextId(bucket));
+        order.setUserId(orderRequest.userId());
+        order.setProductId(orderRequest.productId());
+        order.setQuantity(orderRequest.quantity());
+        order.setTotalAmount(totalAmount);
 
-            Order savedOrder = orderRepository.save(order);
-            logger.info("Order created id={} totalAmount={}", savedOrder.getId(), savedOrder.getTotalAmount());
-            return mapToOrderResponse(savedOrder);
-        } catch (HttpClientErrorException e) {
-            logger.warn("Failed to retrieve product from product service: {}", e.getMessage());
-            throw new IllegalArgumentException("Failed to retrieve product: " + e.getMessage());
-        } catch (Exception e) {
-            logger.error("Unexpected error while creating order: {}", e.getMessage(), e);
-            throw e;
-        }
+        Order savedOrder = orderWriteBatcher != null ? orderWriteBatcher.insert(order) : orderWriter.insert(order);
+        trendingProducts.orderPlaced(savedOrder.getProductId());
+        logger.info("Order created id={} totalAmount={}", savedOrder.getId(), savedOrder.getTotalAmount());
+        return mapToOrderResponse(toRow(savedOrder), null);
+    }
+
+    /** Runs for every request while the circuit is open; its state is on /actuator/health. */
+    public OrderResponse createOrderFallback(OrderRequest orderRequest, CallNotPermittedException ex) {
+        logger.debug("createOrderFallback rejected userId={} productId={}: circuit open",
+                orderRequest.userId(), orderRequest.productId());
+        throw ServiceUnavailableException.PRODUCT_SERVICE;
     }
 
-    public OrderResponse createOrderFallback(OrderRequest orderRequest, Exception ex) {
+    /** Product-service could not be reached or answered with a server error. */
+    public OrderResponse createOrderFallback(OrderRequest orderRequest, RestClientException ex) {
         logger.warn("createOrderFallback triggered for userId={} productId={} due to: {}",
                 orderRequest.userId(), orderRequest.productId(), ex.toString());
-        throw new IllegalArgumentException("Product service is currently unavailable. Please try again later.");
+        throw ServiceUnavailableException.PRODUCT_SERVICE;
     }
 
-    public void deleteOrder(Long id) {
+    /**
+     * Deletes the order if it is still in the table. Archived orders are read-only: returns
+     * false, and deletes nothing, when the order exists only in the archive.
+     */
+    public boolean deleteOrder(Long id) {
         if (id == null) {
             throw new IllegalArgumentException("Order id cannot be null");
         }
         logger.info("Deleting order id={}", id);
-        orderRepository.deleteById(id);
+        boolean deleted = orderShards.onShard(orderShards.shardOfOrder(id), () -> transactionTemplate.execute(status -> {
+            Optional<Order> order = orderRepository.findById(id);
+            order.ifPresent(found -> {
+                orderRepository.delete(found);
+                orderSummaryService.orderDeleted(found);
+            });
+            return order.isPresent();
+        }));
+        return deleted || orderArchive.findById(id).isEmpty();
     }
 
-    private OrderResponse mapToOrderResponse(Order order) {
-        String userName = "Unknown";
-        String productName = "Unknown";
+    /**
+     * Scatter-gather: each shard returns its first {@code offset + size} rows in the requested
+     * order and the page is cut from a k-way merge of those runs. Deep pages cost
+     * {@code shards * (offset + size)} rows, so callers walking far should filter by user.
+     */
+    private Page<OrderRow> findAllAcrossShards(Pageable pageable) {
+        // Ties are broken by id so that every shard and the merge agree on one total order
+        Sort sort = pageable.getSort().getOrderFor("id") != null
+                ? pageable.getSort()
+                : pageable.getSort().and(Sort.by("id"));
+        Comparator<OrderRow> comparator = comparatorFor(sort);
+        int window = Math.toIntExact(pageable.getOffset() + pageable.getPageSize());
+        List<Page<OrderRow>> runs = orderShards.onAllShards(
+                shard -> orderRepository.findAllRows(PageRequest.of(0, window, sort)));
 
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> user = restTemplate.getForObject(
-                    userServiceUrl + "/users/" + order.getUserId(),
-                    Map.class);
-            if (user != null && user.get("name") instanceof String name) {
-                userName = name;
+        long total = 0;
+        PriorityQueue<MergeCursor> heads = new PriorityQueue<>(
+                (a, b) -> comparator.compare(a.current(), b.current()));
+        for (Page<OrderRow> run : runs) {
+            total += run.getTotalElements();
+            if (run.hasContent()) {
+                heads.add(new MergeCursor(run.getContent()));
+            }
+        }
+
+        List<OrderRow> content = new ArrayList<>(pageable.getPageSize());
+        long skip = pageable.getOffset();
+        while (!heads.isEmpty() && content.size() < pageable.getPageSize()) {
+            MergeCursor head = heads.poll();
+            if (skip > 0) {
+                skip--;
+            } else {
+                content.add(head.current());
+            }
+            if (head.advance()) {
+                heads.add(head);
             }
-        } catch (Exception e) {
-            logger.debug("Could not fetch user name for userId={}: {}", order.getUserId(), e.getMessage());
         }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static Comparator<OrderRow> comparatorFor(Sort sort) {
+        Comparator<OrderRow> comparator = null;
+        for (Sort.Order order : sort) {
+            // Nulls sort low, as H2 does
+            Comparator<OrderRow> next = switch (order.getProperty()) {
+                case "id" -> Comparator.comparing(OrderRow::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "userId" -> Comparator.comparing(OrderRow::userId, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "productId" -> Comparator.comparing(OrderRow::productId, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "quantity" -> Comparator.comparing(OrderRow::quantity, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "totalAmount" -> Comparator.comparing(OrderRow::totalAmount, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "status" -> Comparator.comparing(OrderRow::status, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "orderDate" -> Comparator.comparing(OrderRow::orderDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+                default -> throw new IllegalArgumentException("Cannot sort orders by '" + order.getProperty() + "'");
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private static final class MergeCursor {
+        private final List<OrderRow> run;
+        private int position;
+
+        MergeCursor(List<OrderRow> run) {
+            this.run = run;
+        }
+
+        OrderRow current() {
+            return run.get(position);
+        }
+
+        boolean advance() {
+            return ++position < run.size();
+        }
+    }
 
+    private static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long decodeCursor(String cursor) {
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> product = restTemplate.getForObject(
-                    productServiceUrl + "/products/" + order.getProductId(),
-                    Map.class);
-            if (product != null && product.get("name") instanceof String name) {
-                productName = name;
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor '" + cursor + "'");
+        }
+    }
+
+    private static OrderRow toRow(Order order) {
+        return new OrderRow(order.getId(), order.getUserId(), order.getProductId(), order.getQuantity(),
+                order.getTotalAmount(), order.getStatus(), order.getOrderDate());
+    }
+
+    private OrderResponse mapToOrderResponse(OrderRow order, Set<String> fields) {
+        String userName = null;
+        String productName = null;
+
+        if (fields == null || fields.contains("userName")) {
+            userName = "Unknown";
+            try {
+                UserResponse user = restTemplate.getForObject(
+                        userServiceUrl + "/users/" + order.userId(),
+                        UserResponse.class);
+                if (user != null && user.name() != null) {
+                    userName = user.name();
+                }
+            } catch (Exception e) {
+                logger.debug("Could not fetch user name for userId={}: {}", order.userId(), e.getMessage());
+            }
+        }
+
+        if (fields == null || fields.contains("productName")) {
+            productName = "Unknown";
+            try {
+                ProductResponse product = restTemplate.getForObject(
+                        productServiceUrl + "/products/" + order.productId(),
+                        ProductResponse.class);
+                if (product != null && product.name() != null) {
+                    productName = product.name();
+                }
+            } catch (Exception e) {
+                logger.debug("Could not fetch product name for productId={}: {}", order.productId(), e.getMessage());
             }
-        } catch (Exception e) {
-            logger.debug("Could not fetch product name for productId={}: {}", order.getProductId(), e.getMessage());
         }
 
         return new OrderResponse(
-                order.getId(),
-                order.getUserId(),
+                order.id(),
+                order.userId(),
                 userName,
-                order.getProductId(),
+                order.productId(),
                 productName,
-                order.getQuantity(),
-                order.getTotalAmount(),
-                order.getStatus(),
-                order.getOrderDate());
+                order.quantity(),
+                order.totalAmount(),
+                order.status(),
+                order.orderDate());
     }
 }
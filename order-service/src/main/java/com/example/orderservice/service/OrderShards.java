@@ -0,0 +1,131 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.ShardContext;
+import com.example.orderservice.config.ShardingProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Maps users and orders to storage shards. Users hash into {@link #BUCKETS} virtual buckets,
+ * buckets are assigned to shards, and order ids keep their bucket in the low
+ * {@link #BUCKET_BITS} bits. Resharding therefore only moves buckets (and their rows) and
+ * edits the bucket ranges; ids and user placement within buckets never change.
+ *
+ * <p>With sharding disabled there is a single shard and every call runs inline.
+ */
+@Component
+public class OrderShards {
+    public static final int BUCKET_BITS = 10;
+    public static final int BUCKETS = 1 << BUCKET_BITS;
+
+    private final boolean enabled;
+    private final int shardCount;
+    private final int[] shardOfBucket;
+    private final ExecutorService scatterExecutor;
+
+    public OrderShards(ShardingProperties properties) {
+        this.enabled = properties.enabled();
+        this.shardCount = enabled ? properties.shards().size() : 1;
+        this.shardOfBucket = assignBuckets(enabled ? properties.shards() : List.of(), shardCount);
+        this.scatterExecutor = enabled ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int bucketOfUser(long userId) {
+        // Spread sequential user ids before taking the bucket (murmur3 finalizer)
+        long h = userId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) (h & (BUCKETS - 1));
+    }
+
+    public int shardOfUser(long userId) {
+        return shardOfBucket[bucketOfUser(userId)];
+    }
+
+    public int shardOfOrder(long orderId) {
+        return shardOfBucket[(int) (orderId & (BUCKETS - 1))];
+    }
+
+    /**
+     * Runs {@code action} against one shard. The action must open its own transaction (as
+     * repository calls do) so the connection is fetched while the shard is set.
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        return ShardContext.callOn(shard, action);
+    }
+
+    /**
+     * Runs {@code action} against every shard in parallel and returns the results in shard order.
+     */
+    public <T> List<T> onAllShards(IntFunction<T> action) {
+        if (!enabled) {
+            return List.of(action.apply(0));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shard = i;
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> ShardContext.callOn(shard, () -> action.apply(shard)), scatterExecutor));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdown();
+        }
+    }
+
+    private static int[] assignBuckets(List<ShardingProperties.Shard> shards, int shardCount) {
+        int[] assignment = new int[BUCKETS];
+        Arrays.fill(assignment, -1);
+        for (int shard = 0; shard < shardCount; shard++) {
+            String ranges = shards.isEmpty() ? null : shards.get(shard).buckets();
+            if (ranges == null || ranges.isBlank()) {
+                // Contiguous even split, so doubling the shard count halves every range
+                ranges = (shard * BUCKETS / shardCount) + "-" + ((shard + 1) * BUCKETS / shardCount - 1);
+            }
+            for (String range : ranges.split(",")) {
+                String[] bounds = range.trim().split("-");
+                int from = Integer.parseInt(bounds[0].trim());
+                int to = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : from;
+                if (from < 0 || to >= BUCKETS || from > to) {
+                    throw new IllegalStateException("Invalid bucket range '" + range + "' for shard " + shard);
+                }
+                for (int bucket = from; bucket <= to; bucket++) {
+                    if (assignment[bucket] != -1) {
+                        throw new IllegalStateException("Bucket " + bucket + " is assigned to shards "
+                                + assignment[bucket] + " and " + shard);
+                    }
+                    assignment[bucket] = shard;
+                }
+            }
+        }
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (assignment[bucket] == -1) {
+                throw new IllegalStateException("Bucket " + bucket + " is not assigned to any shard");
+            }
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.OrderSummaryProperties;
+import com.example.orderservice.dto.OrderSummaryResponse;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.entity.UserOrderSummary;
+import com.example.orderservice.repository.UserOrderSummaryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+/**
+ * Per-user order count, spend and last order date. The totals live in
+ * {@code user_order_summaries} on the user's shard and are adjusted in the same transaction
+ * as each order insert or delete, so they never need re-aggregating. Reads go through a
+ * Caffeine cache; after a change commits, the cache takes the new row unless it already
+ * holds a newer revision.
+ */
+@Service
+public class OrderSummaryService {
+
+    private record Cached(OrderSummaryResponse summary, long revision) {
+    }
+
+    @Autowired
+    private UserOrderSummaryRepository summaryRepository;
+
+    @Autowired
+    private OrderShards orderShards;
+
+    private final Cache<Long, Cached> cache;
+
+    public OrderSummaryService(OrderSummaryProperties properties, MeterRegistry registry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.cacheMaximumSize())
+                .expireAfterWrite(properties.cacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "orderSummaries");
+    }
+
+    public OrderSummaryResponse getSummary(long userId) {
+        return cache.get(userId, id -> orderShards.onShard(orderShards.shardOfUser(id),
+                () -> summaryRepository.findById(id))
+                .map(OrderSummaryService::toCached)
+                .orElseGet(() -> new Cached(new OrderSummaryResponse(id, 0, BigDecimal.ZERO, null), 0)))
+                .summary();
+    }
+
+    /**
+     * Adds a just-saved order to its user's totals. Must run inside the transaction that
+     * saved it, on the order's shard.
+     */
+    void orderPlaced(Order order) {
+        summaryRepository.addOrder(order.getUserId(), amountOf(order), order.getOrderDate());
+        cacheAfterCommit(order.getUserId());
+    }
+
+    /**
+     * Removes a just-deleted order from its user's totals. Must run inside the transaction
+     * that deleted it, on the order's shard.
+     */
+    void orderDeleted(Order order) {
+        summaryRepository.removeOrder(order.getUserId(), amountOf(order), order.getOrderDate());
+        cacheAfterCommit(order.getUserId());
+    }
+
+    private void cacheAfterCommit(long userId) {
+        Cached updated = summaryRepository.findById(userId).map(OrderSummaryService::toCached).orElse(null);
+        if (updated == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Concurrent writers may commit out of order; keep whichever copy is newer
+                cache.asMap().merge(userId, updated,
+                        (current, candidate) -> candidate.revision() > current.revision() ? candidate : current);
+            }
+        });
+    }
+
+    private static BigDecimal amountOf(Order order) {
+        return order.getTotalAmount() == null ? BigDecimal.ZERO : order.getTotalAmount();
+    }
+
+    private static Cached toCached(UserOrderSummary row) {
+        return new Cached(new OrderSummaryResponse(row.getUserId(), row.getOrderCount(), row.getTotalSpend(),
+                row.getLastOrderDate()), row.getRevision());
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.OrderBatchingProperties;
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.repository.OrderRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Writes concurrent order inserts together (group commit). Callers queue their order on its
+ * shard and wait; one thread per shard takes the first waiting order, gathers whatever
+ * arrives within {@code maxDelay} of it up to {@code maxBatchSize}, and inserts the batch and
+ * its summary updates in a single transaction. Every caller returns once that transaction
+ * commits, so an order acknowledged to its client is as durable as with a transaction of its
+ * own, at the cost of up to {@code maxDelay} more latency.
+ *
+ * <p>If a batch fails, its orders are retried one transaction each, so one bad order only
+ * fails its own caller. Callers wait at most {@code timeout} to queue and to commit, and
+ * orders still queued when a writer thread stops are failed rather than left waiting.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.order-batching", name = "enabled", havingValue = "true")
+public class OrderWriteBatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OrderWriteBatcher.class);
+
+    private record Pending(Order order, CompletableFuture<Order> saved, long queuedAt) {
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderWriter orderWriter;
+
+    private final OrderShards orderShards;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long timeoutNanos;
+    private final List<BlockingQueue<Pending>> queues = new ArrayList<>();
+    private final List<Thread> flushers = new ArrayList<>();
+    private final DistributionSummary batchSize;
+    private final Timer queueTime;
+    private volatile boolean running = true;
+
+    public OrderWriteBatcher(OrderBatchingProperties properties, OrderShards orderShards, MeterRegistry registry) {
+        this.orderShards = orderShards;
+        this.maxBatchSize = properties.maxBatchSize();
+        this.maxDelayNanos = properties.maxDelay().toNanos();
+        this.timeoutNanos = properties.timeout().toNanos();
+        this.batchSize = DistributionSummary.builder("orders.insert.batch.size")
+                .description("Orders written per group commit")
+                .register(registry);
+        this.queueTime = Timer.builder("orders.insert.batch.wait")
+                .description("Time from queueing an order to its batch committing")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        for (int shard = 0; shard < orderShards.shardCount(); shard++) {
+            BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+            int flusherShard = shard;
+            queues.add(queue);
+            flushers.add(Thread.ofPlatform().name("order-batch-" + shard).daemon()
+                    .start(() -> flushLoop(flusherShard, queue)));
+        }
+    }
+
+    /**
+     * Inserts the order with whatever else is queued for its shard and returns it once the
+     * batch has committed.
+     */
+    public Order insert(Order order) {
+        if (!running) {
+            throw new IllegalStateException("Order writes are shutting down");
+        }
+        Pending pending = new Pending(order, new CompletableFuture<>(), System.nanoTime());
+        BlockingQueue<Pending> queue = queues.get(orderShards.shardOfOrder(order.getId()));
+        try {
+            if (!queue.offer(pending, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Order writes are backed up; order " + order.getId() + " not queued");
+            }
+            // The writers may have drained and stopped between the check above and the offer
+            if (!running && queue.remove(pending)) {
+                throw new IllegalStateException("Order writes are shutting down");
+            }
+            return pending.saved().get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing order " + order.getId(), e);
+        } catch (TimeoutException e) {
+            queue.remove(pending);
+            throw new IllegalStateException("Order " + order.getId() + " was not committed within "
+                    + Duration.ofNanos(timeoutNanos), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Writing order " + order.getId() + " failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread flusher : flushers) {
+            // Flushers drain what is already queued before they stop
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    private void flushLoop(int shard, BlockingQueue<Pending> queue) {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.queuedAt() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(shard, batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.saved().completeExceptionally(e));
+                break;
+            } catch (Throwable e) {
+                // Keep the writer alive: an Error here would otherwise strand every caller
+                logger.error("Order batch on shard {} failed unexpectedly", shard, e);
+                batch.forEach(pending -> pending.saved().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        List<Pending> stranded = new ArrayList<>();
+        queue.drainTo(stranded);
+        IllegalStateException stopped = new IllegalStateException("Order writes on shard " + shard + " stopped");
+        stranded.forEach(pending -> pending.saved().completeExceptionally(stopped));
+    }
+
+    private void flush(int shard, List<Pending> batch) {
+        batchSize.record(batch.size());
+        List<Order> orders = batch.stream().map(Pending::order).toList();
+        try {
+            List<Order> saved = orderShards.onShard(shard, () -> transactionTemplate.execute(status -> {
+                List<Order> inserted = orderRepository.saveAll(orders);
+                inserted.forEach(orderSummaryService::orderPlaced);
+                return inserted;
+            }));
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), saved.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                // Its one attempt has been made; retry only what OrderWriter would retry
+                Pending only = batch.get(0);
+                if (e instanceof DataIntegrityViolationException conflict) {
+                    try {
+                        complete(only, orderWriter.retry(only.order(), conflict));
+                    } catch (RuntimeException retried) {
+                        only.saved().completeExceptionally(retried);
+                    }
+                } else {
+                    only.saved().completeExceptionally(e);
+                }
+                return;
+            }
+            logger.warn("Batch of {} orders on shard {} failed, retrying one by one: {}",
+                    batch.size(), shard, e.getMessage());
+            for (Pending pending : batch) {
+                try {
+                    complete(pending, orderWriter.insert(pending.order()));
+                } catch (RuntimeException single) {
+                    pending.saved().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private void complete(Pending pending, Order saved) {
+        queueTime.record(System.nanoTime() - pending.queuedAt(), TimeUnit.NANOSECONDS);
+        pending.saved().complete(saved);
+    }
+}
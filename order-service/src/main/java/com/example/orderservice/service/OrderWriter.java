@@ -0,0 +1,60 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.entity.Order;
+import com.example.orderservice.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Saves one new order and adds it to its user's summary in a transaction of its own, on the
+ * order's shard. Used for every insert when group commit is off, and by
+ * {@link OrderWriteBatcher} for orders of a batch that failed.
+ */
+@Component
+public class OrderWriter {
+    private static final Logger logger = LoggerFactory.getLogger(OrderWriter.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+
+    @Autowired
+    private OrderShards orderShards;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Inserts the order, retrying once on a key conflict. A user's first two orders placed at
+     * once, on this instance or another, both find no summary row and both insert one; the
+     * second fails on the row's key once the first commits, and the retry finds the row there
+     * to update.
+     */
+    public Order insert(Order order) {
+        try {
+            return insertOnce(order);
+        } catch (DataIntegrityViolationException e) {
+            return retry(order, e);
+        }
+    }
+
+    /** The retry half of {@link #insert}, for a caller whose own first attempt hit {@code conflict}. */
+    Order retry(Order order, DataIntegrityViolationException conflict) {
+        logger.debug("Retrying order id={} after a summary row conflict: {}", order.getId(), conflict.getMessage());
+        return insertOnce(order);
+    }
+
+    private Order insertOnce(Order order) {
+        return orderShards.onShard(orderShards.shardOfOrder(order.getId()), () -> transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            orderSummaryService.orderPlaced(saved);
+            return saved;
+        }));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.config.TrendingProperties;
+import com.example.orderservice.dto.TrendingProduct;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Most ordered products over a sliding window, counted as orders are placed on this
+ * instance, so ranking them never scans {@code orders}.
+ *
+ * <p>Counts live in a ring of count-min sketches, one per time bucket. A product's estimate
+ * is the smallest, over the hash rows, of its counters summed across the live buckets, and
+ * the oldest bucket is cleared as the window slides. Within a bucket an order raises only the
+ * product's counters that are at its lowest (conservative update), which keeps every
+ * bucket, and so every sum, at or above the true count while cutting how far collisions
+ * push estimates up. Next to the sketches a bounded set of
+ * candidates, ordered by estimate, keeps the products with the highest estimates; a product
+ * enters it by beating the weakest candidate. Memory is {@code buckets * depth * width}
+ * counters plus {@code 4 * topK} candidates however large the catalog is.
+ *
+ * <p>Each instance counts only the orders it created and starts empty, so behind a load
+ * balancer the ranking is a sample of all orders rather than their total.
+ */
+@Service
+public class TrendingProducts {
+
+    private static final Comparator<TrendingProduct> BY_ORDERS = Comparator.comparingLong(TrendingProduct::orders)
+            .thenComparing(TrendingProduct::productId, Comparator.reverseOrder());
+
+    private final int depth;
+    private final int width;
+    private final long bucketMillis;
+    private final int topK;
+    private final int capacity;
+
+    /** One sketch per bucket, rows laid out one after another. */
+    private final int[][] sketches;
+    private final long[] seeds;
+    private final int[] counters;
+
+    /** Candidates by product id and by estimate, as of the last order for them or the last slide. */
+    private final Map<Long, TrendingProduct> candidates = new HashMap<>();
+    private final NavigableSet<TrendingProduct> ranking = new TreeSet<>(BY_ORDERS);
+
+    /** Index of the newest bucket, counted in bucket lengths since the epoch. */
+    private long currentBucket;
+
+    public TrendingProducts(TrendingProperties properties) {
+        this.depth = properties.depth();
+        this.width = properties.width();
+        this.bucketMillis = Math.max(1, properties.window().toMillis() / properties.buckets());
+        this.topK = properties.topK();
+        this.capacity = 4 * properties.topK();
+        this.sketches = new int[properties.buckets()][depth * width];
+        this.seeds = new long[depth];
+        this.counters = new int[depth];
+        for (int row = 0; row < depth; row++) {
+            seeds[row] = 0x9E3779B97F4A7C15L * (row + 1);
+        }
+        this.currentBucket = System.currentTimeMillis() / bucketMillis;
+    }
+
+    /**
+     * Counts one order for the product.
+     */
+    public synchronized void orderPlaced(long productId) {
+        slide();
+        int[] sketch = sketches[(int) (currentBucket % sketches.length)];
+        int least = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            counters[row] = counter(productId, row);
+            least = Math.min(least, sketch[counters[row]]);
+        }
+        // Conservative update: only counters at the bucket's current estimate are raised
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            sketch[counters[row]] = Math.max(sketch[counters[row]], least + 1);
+            estimate = Math.min(estimate, sum(counters[row]));
+        }
+        offer(new TrendingProduct(productId, estimate));
+    }
+
+    /**
+     * Up to {@code limit} products with the most orders in the window, most ordered first.
+     */
+    public synchronized List<TrendingProduct> top(int limit) {
+        if (limit < 1 || limit > topK) {
+            throw new IllegalArgumentException("limit must be between 1 and " + topK);
+        }
+        slide();
+        List<TrendingProduct> top = new ArrayList<>(Math.min(limit, ranking.size()));
+        for (TrendingProduct product : ranking.descendingSet()) {
+            if (top.size() == limit) {
+                break;
+            }
+            top.add(product);
+        }
+        return top;
+    }
+
+    private void offer(TrendingProduct product) {
+        TrendingProduct previous = candidates.get(product.productId());
+        if (previous == null && candidates.size() == capacity) {
+            if (BY_ORDERS.compare(product, ranking.first()) <= 0) {
+                return;
+            }
+            candidates.remove(ranking.pollFirst().productId());
+        }
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        candidates.put(product.productId(), product);
+        ranking.add(product);
+    }
+
+    /**
+     * Clears the buckets that fell out of the window since the last call and re-estimates
+     * the candidates, dropping those with no orders left.
+     */
+    private void slide() {
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        if (bucket <= currentBucket) {
+            return;
+        }
+        long expired = Math.min(bucket - currentBucket, sketches.length);
+        for (long i = 1; i <= expired; i++) {
+            Arrays.fill(sketches[(int) ((currentBucket + i) % sketches.length)], 0);
+        }
+        currentBucket = bucket;
+        List<TrendingProduct> previous = new ArrayList<>(ranking);
+        candidates.clear();
+        ranking.clear();
+        for (TrendingProduct candidate : previous) {
+            long estimate = estimate(candidate.productId());
+            if (estimate > 0) {
+                offer(new TrendingProduct(candidate.productId(), estimate));
+            }
+        }
+    }
+
+    private long estimate(long productId) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, sum(counter(productId, row)));
+        }
+        return estimate;
+    }
+
+    private long sum(int counter) {
+        long total = 0;
+        for (int[] sketch : sketches) {
+            total += sketch[counter];
+        }
+        return total;
+    }
+
+    private int counter(long productId, int row) {
+        long hash = (productId ^ seeds[row]) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 31)) * 0x94D049BB133111EBL;
+        hash ^= hash >>> 29;
+        return row * width + (int) Math.floorMod(hash, (long) width);
+    }
+}
@@ -0,0 +1,6 @@
+-- Legacy: order ids were once allocated in blocks of 1000 from this sequence and shifted
+-- left by 10 bits to carry the user's shard bucket, starting above 2^31 to clear the old
+-- AUTO_INCREMENT ids. OrderIdGenerator has replaced it and nothing reads it any more; it
+-- is kept only for pods still running the allocator during a rollout, and can be dropped
+-- by a later migration once none remain.
+CREATE SEQUENCE order_id_seq START WITH 2097152 INCREMENT BY 1000;
@@ -0,0 +1,2 @@
+-- Lets the archival job find orders past the retention window without a full scan
+CREATE INDEX idx_orders_order_date ON orders(order_date);
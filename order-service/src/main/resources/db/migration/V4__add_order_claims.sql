@@ -0,0 +1,5 @@
+-- Claim bookkeeping for the order processing pipeline. The status index serves both the
+-- claim query (status, then id order) and the pending backlog gauges.
+ALTER TABLE orders ADD COLUMN claimed_at TIMESTAMP;
+
+CREATE INDEX idx_orders_status ON orders(status, id);
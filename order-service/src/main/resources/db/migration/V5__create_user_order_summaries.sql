@@ -0,0 +1,18 @@
+-- Keyset paging over one user's orders (WHERE user_id = ? AND id < ? ORDER BY id DESC)
+CREATE INDEX idx_orders_user_id_id ON orders(user_id, id);
+DROP INDEX idx_orders_user_id;
+
+-- Per-user totals, maintained in the same transaction as order inserts and deletes. Archival
+-- does not touch it, so archived orders still count.
+CREATE TABLE user_order_summaries (
+    user_id BIGINT PRIMARY KEY,
+    order_count BIGINT NOT NULL,
+    total_spend DECIMAL(19, 2) NOT NULL,
+    last_order_date TIMESTAMP,
+    revision BIGINT NOT NULL
+);
+
+INSERT INTO user_order_summaries (user_id, order_count, total_spend, last_order_date, revision)
+SELECT user_id, COUNT(*), COALESCE(SUM(total_amount), 0), MAX(order_date), 1
+FROM orders
+GROUP BY user_id;
@@ -0,0 +1,20 @@
+package com.example.productservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * In-memory catalog serving. When enabled, product reads by id and id-ordered pages are
+ * answered from an immutable snapshot of the products table instead of the database.
+ *
+ * @param refreshInterval how often the whole table is re-read. This instance's own writes
+ *                        are applied right after they commit; the full reload picks up
+ *                        writes made through other instances or directly in the database
+ */
+@ConfigurationProperties(prefix = "app.catalog.snapshot")
+public record CatalogSnapshotProperties(
+        boolean enabled,
+        @DefaultValue("60s") Duration refreshInterval) {
+}
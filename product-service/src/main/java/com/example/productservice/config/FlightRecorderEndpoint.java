@@ -0,0 +1,81 @@
+package com.example.productservice.config;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * {@code GET /actuator/jfr?age=10m} returns the last {@code age} of everything the flight
+ * recorder holds, the continuous recording included, as a .jfr file for JDK Mission
+ * Control or {@code jfr print}. Answers 404 when no recording is running.
+ */
+@Endpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    private final Duration defaultAge;
+
+    public FlightRecorderEndpoint(Duration defaultAge) {
+        this.defaultAge = defaultAge;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Nullable Duration age) throws IOException {
+        if (!FlightRecorder.isInitialized()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            snapshot.setMaxAge(age != null ? age : defaultAge);
+            Path file = Files.createTempFile("recording-", ".jfr");
+            snapshot.dump(file);
+            return new WebEndpointResponse<>(new TemporaryFileResource(file));
+        }
+    }
+
+    /**
+     * Deletes the dump once it has been streamed to the caller.
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private final Path file;
+
+        TemporaryFileResource(Path file) {
+            super(file);
+            this.file = file;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            // Keeps the response on getInputStream() rather than a zero-copy file transfer
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.productservice.config;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.aopalliance.intercept.MethodInterceptor;
+
+/**
+ * Application events written to the JDK Flight Recorder next to the JVM's own, so a
+ * recording shows which request or query a GC pause, lock or hot method belongs to. Events
+ * cost next to nothing while no recording has them enabled. Only events over their threshold
+ * are kept, so a busy instance does not fill the recording with fast requests; a custom .jfc
+ * in {@code app.jfr.settings} can lower it.
+ */
+final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() {
+    }
+
+    @Name("com.example.productservice.HttpRequest")
+    @Label("HTTP Request")
+    @Description("An HTTP request handled by this service")
+    @Category({ "Product Service", "HTTP" })
+    @Threshold("10 ms")
+    @StackTrace(false)
+    static final class HttpRequest extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("URI Template")
+        String uri;
+
+        @Label("Path")
+        String path;
+
+        @Label("Status")
+        int status;
+    }
+
+    @Name("com.example.productservice.RepositoryQuery")
+    @Label("Repository Query")
+    @Description("A Spring Data repository method call, including its transaction")
+    @Category({ "Product Service", "Database" })
+    @Threshold("1 ms")
+    static final class RepositoryQuery extends Event {
+        @Label("Repository")
+        String repository;
+
+        @Label("Method")
+        String method;
+    }
+
+    /**
+     * Records a {@link RepositoryQuery} around each call on a repository of the given type.
+     */
+    static MethodInterceptor repositoryQueries(Class<?> repositoryInterface) {
+        String repository = repositoryInterface.getSimpleName();
+        return invocation -> {
+            RepositoryQuery event = new RepositoryQuery();
+            event.begin();
+            try {
+                return invocation.proceed();
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.repository = repository;
+                    event.method = invocation.getMethod().getName();
+                    event.commit();
+                }
+            }
+        };
+    }
+}
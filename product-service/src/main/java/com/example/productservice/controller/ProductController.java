@@ -1,21 +1,32 @@
 package com.example.productservice.controller;
 
+import com.example.productservice.dto.BulkProductUpdateRequest;
+import com.example.productservice.dto.BulkProductUpdateResult;
 import com.example.productservice.dto.CreateProductRequest;
+import com.example.productservice.dto.ImportResult;
 import com.example.productservice.dto.ProductDto;
 import com.example.productservice.dto.UpdateProductRequest;
 import com.example.productservice.entity.Product;
 import com.example.productservice.mapper.ProductMapper;
+import com.example.productservice.service.ProductImportService;
 import com.example.productservice.service.ProductService;
+import com.example.productservice.service.Result;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/products")
 public class ProductController {
@@ -24,14 +35,16 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
     @Autowired
     private ProductMapper productMapper;
 
     @GetMapping
     public Page<ProductDto> getAllProducts(Pageable pageable) {
         logger.debug("GET /products called with pagination");
-        return productService.getAllProducts(pageable)
-                .map(productMapper::toDto);
+        return productService.getAllProducts(pageable);
     }
 
     @GetMapping("/{id}")
@@ -57,26 +70,48 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(productMapper.toDto(saved));
     }
 
+    /**
+     * Bulk-creates products from a CSV or NDJSON body, streamed rather than buffered.
+     */
+    @PostMapping(path = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ImportResult importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        logger.info("POST /products/import called with {}", contentType);
+        return productImportService.importProducts(body, contentType);
+    }
+
+    /**
+     * Applies price and stock deltas to many products at once.
+     */
+    @PatchMapping
+    public BulkProductUpdateResult bulkUpdateProducts(@Valid @RequestBody BulkProductUpdateRequest request) {
+        logger.info("PATCH /products called with {} changes", request.getChanges().size());
+        return productService.bulkUpdate(request.getChanges());
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id,
             @Valid @RequestBody UpdateProductRequest request) {
-        try {
-            // We need to map UpdateProductRequest to Product entity for the service
-            // But service takes Product with all fields.
-            // Let's create a temp product with fields from request
-            Product tempProduct = new Product();
-            tempProduct.setName(request.getName());
-            tempProduct.setDescription(request.getDescription());
-            tempProduct.setPrice(request.getPrice());
-            tempProduct.setStock(request.getStock());
+        // We need to map UpdateProductRequest to Product entity for the service
+        // But service takes Product with all fields.
+        // Let's create a temp product with fields from request
+        Product tempProduct = new Product();
+        tempProduct.setName(request.getName());
+        tempProduct.setDescription(request.getDescription());
+        tempProduct.setPrice(request.getPrice());
+        tempProduct.setStock(request.getStock());
 
-            Product updated = productService.updateProduct(id, tempProduct);
-            logger.info("PUT /products/{} updated", id);
-            return ResponseEntity.ok(productMapper.toDto(updated));
-        } catch (RuntimeException e) {
-            logger.debug("PUT /products/{} not found", id);
-            return ResponseEntity.notFound().build();
-        }
+        return switch (productService.updateProduct(id, tempProduct)) {
+            case Result.Ok<Product>(Product updated) -> {
+                logger.info("PUT /products/{} updated", id);
+                yield ResponseEntity.ok(productMapper.toDto(updated));
+            }
+            case Result.NotFound<Product>() -> {
+                logger.debug("PUT /products/{} not found", id);
+                yield problem(HttpStatus.NOT_FOUND, "Product " + id + " not found");
+            }
+            case Result.Invalid<Product>(String message) -> problem(HttpStatus.BAD_REQUEST, message);
+        };
     }
 
     @DeleteMapping("/{id}")
@@ -86,4 +121,9 @@ public class ProductController {
         logger.info("DELETE /products/{} completed", id);
         return ResponseEntity.noContent().build();
     }
+
+    /** An RFC 7807 problem response in place of the endpoint's usual body. */
+    private static <T> ResponseEntity<T> problem(HttpStatus status, String detail) {
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(status, detail)).build();
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductUpdateRequest {
+    @NotEmpty(message = "At least one change is required")
+    @Size(max = 10000, message = "At most 10000 changes per request")
+    private List<@Valid ProductDelta> changes;
+}
@@ -0,0 +1,15 @@
+package com.example.productservice.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * @param updated  new state of every product a change was applied to
+ * @param rejected ids of changes not applied, because the product does not exist or the
+ *                 change would take its price to 0 or below or its stock below 0
+ */
+public record BulkProductUpdateResult(List<ProductVersion> updated, List<Long> rejected) {
+
+    public record ProductVersion(Long id, Long version, BigDecimal price, Integer stock) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.productservice.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Only the first errors are listed; {@code failed} counts all of them.
+ */
+public record ImportResult(
+        long rows,
+        long imported,
+        long failed,
+        long elapsedMillis,
+        double rowsPerSecond,
+        List<RowError> errors,
+        boolean errorsTruncated) {
+
+    /**
+     * @param line line of the input the row starts on (the CSV header is line 1)
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.productservice.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDelta {
+    @NotNull(message = "Product id is required")
+    private Long id;
+
+    /**
+     * Added to the current price; the result must stay above 0 and fit the price column,
+     * DECIMAL(10, 2). A delta with more than 2 decimal places is refused with the request.
+     */
+    @Digits(integer = 8, fraction = 2, message = "Price delta must have at most 8 integer digits and 2 decimals")
+    private BigDecimal priceDelta;
+
+    /** Added to the current stock; the result must not go below 0 or past the INT column's maximum. */
+    private Integer stockDelta;
+}
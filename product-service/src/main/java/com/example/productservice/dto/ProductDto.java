@@ -1,5 +1,7 @@
 package com.example.productservice.dto;
 
+import com.example.productservice.config.SparseFieldsetAdvice;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,6 +9,7 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Data
+@JsonFilter(SparseFieldsetAdvice.FILTER)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductDto {
@@ -15,4 +18,5 @@ public class ProductDto {
     private String description;
     private BigDecimal price;
     private Integer stock;
+    private Long version;
 }
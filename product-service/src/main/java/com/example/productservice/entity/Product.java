@@ -22,4 +22,7 @@ public class Product {
     private String description;
     private BigDecimal price;
     private Integer stock;
+
+    @Version
+    private Long version;
 }
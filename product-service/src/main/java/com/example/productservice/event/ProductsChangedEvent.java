@@ -0,0 +1,12 @@
+package com.example.productservice.event;
+
+import com.example.productservice.dto.BulkProductUpdateResult.ProductVersion;
+
+import java.util.List;
+
+/**
+ * Published after products are created or updated (once per committed batch of a bulk
+ * update), with the products' new state.
+ */
+public record ProductsChangedEvent(List<ProductVersion> products) {
+}
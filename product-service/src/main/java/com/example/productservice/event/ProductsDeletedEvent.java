@@ -0,0 +1,9 @@
+package com.example.productservice.event;
+
+import java.util.List;
+
+/**
+ * Published after products are deleted.
+ */
+public record ProductsDeletedEvent(List<Long> ids) {
+}
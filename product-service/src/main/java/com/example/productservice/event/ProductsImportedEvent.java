@@ -0,0 +1,8 @@
+package com.example.productservice.event;
+
+/**
+ * Published after a bulk import inserted rows. Imports do not collect generated ids, so
+ * listeners that track individual products have to re-read the table.
+ */
+public record ProductsImportedEvent(long imported) {
+}
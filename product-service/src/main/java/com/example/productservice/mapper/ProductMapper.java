@@ -18,7 +18,8 @@ public class ProductMapper {
                 product.getName(),
                 product.getDescription(),
                 product.getPrice(),
-                product.getStock());
+                product.getStock(),
+                product.getVersion());
     }
 
     public Product toEntity(CreateProductRequest request) {
@@ -1,9 +1,24 @@
 package com.example.productservice.repository;
 
+import com.example.productservice.dto.ProductDto;
 import com.example.productservice.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    /**
+     * Product list page selected straight into DTOs: no entities are hydrated or tracked by
+     * the persistence context. Read-only like {@code findAll}, so it routes to the replica.
+     */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT new com.example.productservice.dto.ProductDto("
+            + "p.id, p.name, p.description, p.price, p.stock, p.version) FROM Product p",
+            countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductDto> findAllAsDto(Pageable pageable);
 }
@@ -0,0 +1,80 @@
+package com.example.productservice.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time: quoted fields may contain commas, line breaks
+ * and doubled quotes; CRLF and LF line endings are both accepted.
+ */
+final class CsvRecordReader {
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final BufferedReader reader;
+    private long line = 1;
+    private long recordLine;
+
+    CsvRecordReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the next record's fields, or {@code null} at the end of the input.
+     */
+    List<String> next() throws IOException {
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+        while (true) {
+            int c = reader.read();
+            if (c == -1) {
+                if (empty) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            empty = false;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            if (field.length() > MAX_FIELD_LENGTH) {
+                throw new IllegalArgumentException("Field on line " + line + " is longer than "
+                        + MAX_FIELD_LENGTH + " characters");
+            }
+        }
+    }
+
+    /** Line the record last returned by {@link #next()} started on. */
+    long recordLine() {
+        return recordLine;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.BulkProductUpdateResult.ProductVersion;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.example.productservice.event.ProductsDeletedEvent;
+import com.example.productservice.event.ProductsImportedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Serves product reads from a {@link ProductCatalogSnapshot} held in memory.
+ *
+ * <p>Readers only dereference a volatile field, so they never lock or touch the database.
+ * Writers are serialized: after a write commits, the changed rows are re-read and merged into
+ * a new snapshot which then replaces the current one. Because a full reload holds the same
+ * lock while it reads, it can never overwrite a newer incremental change with older data.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.catalog.snapshot", name = "enabled", havingValue = "true")
+public class ProductCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private static final int REFRESH_CHUNK = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private volatile ProductCatalogSnapshot snapshot = ProductCatalogSnapshot.EMPTY;
+
+    public ProductCatalog(MeterRegistry registry) {
+        registry.gauge("products.catalog.size", this, catalog -> catalog.snapshot.size());
+        registry.gauge("products.catalog.bytes", this, catalog -> catalog.snapshot.estimatedBytes());
+    }
+
+    public Optional<Product> find(long id) {
+        return Optional.ofNullable(snapshot.get(id));
+    }
+
+    /**
+     * Returns the page if the snapshot can serve it, which is when it is unsorted or sorted
+     * by ascending id; other orderings are left to the database.
+     */
+    public Optional<Page<Product>> page(Pageable pageable) {
+        if (!servesSort(pageable.getSort())) {
+            return Optional.empty();
+        }
+        ProductCatalogSnapshot current = snapshot;
+        if (pageable.isUnpaged()) {
+            return Optional.of(new PageImpl<>(current.slice(0, current.size())));
+        }
+        int from = (int) Math.min(pageable.getOffset(), current.size());
+        List<Product> content = current.slice(from, from + pageable.getPageSize());
+        return Optional.of(new PageImpl<>(content, pageable, current.size()));
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${app.catalog.snapshot.refresh-interval:60s}",
+            fixedDelayString = "${app.catalog.snapshot.refresh-interval:60s}")
+    public synchronized void reload() {
+        long start = System.nanoTime();
+        snapshot = ProductCatalogSnapshot.load(jdbcTemplate);
+        logger.debug("Loaded {} products into the catalog in {} ms ({} bytes)",
+                snapshot.size(), (System.nanoTime() - start) / 1_000_000, snapshot.estimatedBytes());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        refresh(event.products().stream().map(ProductVersion::id).toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        refresh(event.ids());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        reload();
+    }
+
+    /**
+     * Re-reads the given products and swaps in a snapshot with their current rows. Ids that
+     * no longer exist are dropped. Runs after the writing transaction committed, so the rows
+     * are read on a fresh connection from the primary.
+     */
+    synchronized void refresh(List<Long> ids) {
+        Set<Long> removed = new HashSet<>(ids);
+        List<Product> rows = new ArrayList<>(ids.size());
+        List<Long> sorted = new ArrayList<>(new TreeSet<>(ids));
+        for (int from = 0; from < sorted.size(); from += REFRESH_CHUNK) {
+            rows.addAll(namedParameterJdbcTemplate.query(
+                    ProductCatalogSnapshot.SELECT_SQL + " WHERE id IN (:ids) ORDER BY id",
+                    Map.of("ids", sorted.subList(from, Math.min(from + REFRESH_CHUNK, sorted.size()))),
+                    ProductCatalogSnapshot::mapRow));
+        }
+        rows.forEach(row -> removed.remove(row.getId()));
+        snapshot = snapshot.withChanges(rows, removed);
+        logger.debug("Refreshed {} products in the catalog, {} removed", rows.size(), removed.size());
+    }
+
+    private static boolean servesSort(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!order.getProperty().equals("id") || order.isDescending()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
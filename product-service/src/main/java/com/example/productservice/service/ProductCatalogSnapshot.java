@@ -0,0 +1,225 @@
+package com.example.productservice.service;
+
+import com.example.productservice.entity.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable copy of the products table in parallel arrays indexed by position, with ids sorted
+ * for binary search. Prices are kept as cents (the column is DECIMAL(10, 2)), so a product
+ * costs a handful of primitives plus its two strings instead of an entity graph. Changes
+ * produce a new snapshot; an existing one is never modified and can be read without locks.
+ */
+public final class ProductCatalogSnapshot {
+    static final String SELECT_SQL = "SELECT id, name, description, price, stock, version FROM products";
+    static final ProductCatalogSnapshot EMPTY = new Builder(0).build();
+
+    private static final int NULL_STOCK = Integer.MIN_VALUE;
+
+    private final long[] ids;
+    private final String[] names;
+    private final String[] descriptions;
+    private final long[] priceCents;
+    private final int[] stocks;
+    private final long[] versions;
+    private final int size;
+
+    private ProductCatalogSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.names = builder.names;
+        this.descriptions = builder.descriptions;
+        this.priceCents = builder.priceCents;
+        this.stocks = builder.stocks;
+        this.versions = builder.versions;
+    }
+
+    /**
+     * Reads the whole table. Rows are streamed, so only the snapshot itself is held in memory.
+     */
+    public static ProductCatalogSnapshot load(JdbcTemplate jdbcTemplate) {
+        Builder builder = new Builder(1024);
+        jdbcTemplate.query(SELECT_SQL + " ORDER BY id", (RowCallbackHandler) builder::add);
+        builder.trim();
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a detached product, or {@code null} if the id is not in the snapshot.
+     */
+    public Product get(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        return index < 0 ? null : product(index);
+    }
+
+    /**
+     * Products at positions {@code [from, to)} in id order.
+     */
+    public List<Product> slice(int from, int to) {
+        List<Product> products = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < Math.min(to, size); i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    /**
+     * Rough retained size: the arrays plus their strings, assuming compressed oops and
+     * Latin-1 strings.
+     */
+    public long estimatedBytes() {
+        long bytes = 6 * 16L + size * (8L + 4 + 4 + 8 + 4 + 8);
+        for (int i = 0; i < size; i++) {
+            bytes += stringBytes(names[i]) + stringBytes(descriptions[i]);
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns a copy where the given rows replace or add to the current ones and
+     * {@code removedIds} are dropped. {@code rows} must be sorted by id. Unchanged rows are
+     * copied in runs between the changed positions, so the cost is a few array copies. The
+     * arrays keep up to {@code rows.size()} unused slots rather than being copied again to trim.
+     */
+    ProductCatalogSnapshot withChanges(List<Product> rows, Collection<Long> removedIds) {
+        long[] removed = removedIds.stream().mapToLong(Long::longValue).sorted().toArray();
+        Builder builder = new Builder(size + rows.size());
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (j < rows.size() || k < removed.length) {
+            long next = j == rows.size() ? removed[k]
+                    : k == removed.length ? rows.get(j).getId()
+                    : Math.min(rows.get(j).getId(), removed[k]);
+            int found = Arrays.binarySearch(ids, i, size, next);
+            int position = found >= 0 ? found : -found - 1;
+            builder.copy(this, i, position);
+            i = found >= 0 ? found + 1 : position;
+            if (j < rows.size() && rows.get(j).getId() == next) {
+                builder.add(rows.get(j++));
+            }
+            if (k < removed.length && removed[k] == next) {
+                k++;
+            }
+        }
+        builder.copy(this, i, size);
+        return builder.build();
+    }
+
+    private Product product(int index) {
+        return new Product(ids[index], names[index], descriptions[index],
+                BigDecimal.valueOf(priceCents[index], 2),
+                stocks[index] == NULL_STOCK ? null : stocks[index],
+                versions[index]);
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 24 + 16 + value.length();
+    }
+
+    static Product mapRow(ResultSet rs, int rowNum) throws SQLException {
+        int stock = rs.getInt("stock");
+        Integer nullableStock = rs.wasNull() ? null : stock;
+        return new Product(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+                rs.getBigDecimal("price"), nullableStock, rs.getLong("version"));
+    }
+
+    private static final class Builder {
+        private long[] ids;
+        private String[] names;
+        private String[] descriptions;
+        private long[] priceCents;
+        private int[] stocks;
+        private long[] versions;
+        private int size;
+
+        Builder(int capacity) {
+            ids = new long[capacity];
+            names = new String[capacity];
+            descriptions = new String[capacity];
+            priceCents = new long[capacity];
+            stocks = new int[capacity];
+            versions = new long[capacity];
+        }
+
+        void add(ResultSet rs) throws SQLException {
+            int stock = rs.getInt("stock");
+            if (rs.wasNull()) {
+                stock = NULL_STOCK;
+            }
+            add(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+                    cents(rs.getBigDecimal("price")), stock, rs.getLong("version"));
+        }
+
+        void add(Product product) {
+            add(product.getId(), product.getName(), product.getDescription(), cents(product.getPrice()),
+                    product.getStock() == null ? NULL_STOCK : product.getStock(),
+                    product.getVersion() == null ? 0 : product.getVersion());
+        }
+
+        void add(long id, String name, String description, long cents, int stock, long version) {
+            if (size == ids.length) {
+                resize(Math.max(16, size * 2));
+            }
+            ids[size] = id;
+            names[size] = name;
+            descriptions[size] = description;
+            priceCents[size] = cents;
+            stocks[size] = stock;
+            versions[size] = version;
+            size++;
+        }
+
+        void copy(ProductCatalogSnapshot source, int from, int to) {
+            int count = to - from;
+            if (count <= 0) {
+                return;
+            }
+            if (size + count > ids.length) {
+                resize(Math.max(size + count, size * 2));
+            }
+            System.arraycopy(source.ids, from, ids, size, count);
+            System.arraycopy(source.names, from, names, size, count);
+            System.arraycopy(source.descriptions, from, descriptions, size, count);
+            System.arraycopy(source.priceCents, from, priceCents, size, count);
+            System.arraycopy(source.stocks, from, stocks, size, count);
+            System.arraycopy(source.versions, from, versions, size, count);
+            size += count;
+        }
+
+        void trim() {
+            if (size != ids.length) {
+                resize(size);
+            }
+        }
+
+        private void resize(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            stocks = Arrays.copyOf(stocks, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+        }
+
+        ProductCatalogSnapshot build() {
+            return new ProductCatalogSnapshot(this);
+        }
+
+        private static long cents(BigDecimal price) {
+            return price.movePointRight(2).longValueExact();
+        }
+    }
+}
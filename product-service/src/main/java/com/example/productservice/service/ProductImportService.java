@@ -0,0 +1,159 @@
+package com.example.productservice.service;
+
+import com.example.productservice.dto.CreateProductRequest;
+import com.example.productservice.dto.ImportResult;
+import com.example.productservice.event.ProductsImportedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams products from CSV (header row required: {@code name,description,price,stock}, in any
+ * order, description optional) or NDJSON (one {@link CreateProductRequest} per line) into the
+ * products table. Rows are validated like {@code POST /products}; invalid rows are reported
+ * and skipped, the rest are inserted.
+ */
+@Service
+public class ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, description, price, stock) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public ImportResult importProducts(InputStream body, MediaType contentType) throws IOException {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset), 64 * 1024);
+        BulkInsert<CreateProductRequest> insert = new BulkInsert<>(jdbcTemplate, transactionTemplate, INSERT_SQL,
+                (ps, product) -> {
+                    ps.setString(1, product.getName());
+                    ps.setString(2, product.getDescription());
+                    ps.setBigDecimal(3, product.getPrice());
+                    ps.setInt(4, product.getStock());
+                });
+        try {
+            if (TEXT_CSV.isCompatibleWith(contentType)) {
+                readCsv(reader, insert);
+            } else {
+                readNdjson(reader, insert);
+            }
+            ImportResult result = insert.finish();
+            logger.info("Imported {} of {} products in {} ms ({} rows/s)",
+                    result.imported(), result.rows(), result.elapsedMillis(), result.rowsPerSecond());
+            return result;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Product import aborted after {} rows were committed: {}", insert.imported(), e.getMessage());
+            throw e;
+        } finally {
+            // A bad header or unreadable row aborts the import, but earlier batches are committed
+            if (insert.imported() > 0) {
+                eventPublisher.publishEvent(new ProductsImportedEvent(insert.imported()));
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, BulkInsert<CreateProductRequest> insert) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        header = header.stream().map(String::trim).toList();
+        int name = header.indexOf("name");
+        int description = header.indexOf("description");
+        int price = header.indexOf("price");
+        int stock = header.indexOf("stock");
+        if (name < 0 || price < 0 || stock < 0) {
+            throw new IllegalArgumentException("CSV header must contain name, price and stock columns");
+        }
+
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            if (fields.size() != header.size()) {
+                insert.reject(csv.recordLine(), "Expected " + header.size() + " fields but found " + fields.size());
+                continue;
+            }
+            CreateProductRequest product = new CreateProductRequest();
+            product.setName(fields.get(name));
+            product.setDescription(description < 0 ? null : emptyToNull(fields.get(description)));
+            try {
+                product.setPrice(emptyToNull(fields.get(price)) == null ? null : new BigDecimal(fields.get(price).trim()));
+                product.setStock(emptyToNull(fields.get(stock)) == null ? null : Integer.valueOf(fields.get(stock).trim()));
+            } catch (NumberFormatException e) {
+                insert.reject(csv.recordLine(), "price and stock must be numbers");
+                continue;
+            }
+            validateAndAdd(csv.recordLine(), product, insert);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, BulkInsert<CreateProductRequest> insert) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                validateAndAdd(lineNumber, objectMapper.readValue(line, CreateProductRequest.class), insert);
+            } catch (JsonProcessingException e) {
+                insert.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void validateAndAdd(long line, CreateProductRequest product, BulkInsert<CreateProductRequest> insert) {
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            insert.add(line, product);
+        } else {
+            insert.reject(line, violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -1,27 +1,79 @@
 package com.example.productservice.service;
 
+import com.example.productservice.dto.BulkProductUpdateResult;
+import com.example.productservice.dto.BulkProductUpdateResult.ProductVersion;
+import com.example.productservice.dto.ProductDelta;
+import com.example.productservice.dto.ProductDto;
 import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.example.productservice.event.ProductsDeletedEvent;
+import com.example.productservice.mapper.ProductMapper;
 import com.example.productservice.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.lang.NonNull;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
+    static final int BULK_BATCH_SIZE = 500;
+
+    // The WHERE clause keeps price positive and stock non-negative, as the create/update DTOs do
+    // Rows whose new price or stock would leave its column's range are left alone and reported
+    // as rejected, instead of failing the batch after earlier batches have committed
+    private static final String APPLY_DELTA_SQL = "UPDATE products"
+            + " SET price = price + ?, stock = stock + ?, version = version + 1, updated_at = CURRENT_TIMESTAMP"
+            + " WHERE id = ? AND price + ? BETWEEN 0.01 AND 99999999.99"
+            + " AND CAST(stock AS BIGINT) + ? BETWEEN 0 AND 2147483647";
+
     @Autowired
     private ProductRepository productRepository;
 
-    public Page<Product> getAllProducts(@NonNull Pageable pageable) {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    // Present only when app.catalog.snapshot.enabled is set
+    @Autowired(required = false)
+    private ProductCatalog productCatalog;
+
+    // Reads rely on the repository's read-only transactions, so catalog hits never take a connection
+    public Page<ProductDto> getAllProducts(@NonNull Pageable pageable) {
         logger.debug("Fetching products with pagination");
-        Page<Product> page = productRepository.findAll(pageable);
+        Page<ProductDto> page = Optional.ofNullable(productCatalog)
+                .flatMap(catalog -> catalog.page(pageable))
+                .map(products -> products.map(productMapper::toDto))
+                .orElseGet(() -> productRepository.findAllAsDto(pageable));
         logger.debug("Fetched {} products", page.getNumberOfElements());
         return page;
     }
@@ -31,7 +83,9 @@ public class ProductService {
             return Optional.empty();
         }
         logger.debug("Fetching product by id={}", id);
-        Optional<Product> result = productRepository.findById(id);
+        Optional<Product> result = productCatalog != null
+                ? productCatalog.find(id)
+                : productRepository.findById(id);
         if (result.isPresent())
             logger.debug("Found product id={}", id);
         else
@@ -43,23 +97,33 @@ public class ProductService {
         logger.info("Creating product name={} price={}", product.getName(), product.getPrice());
         Product saved = productRepository.save(product);
         logger.info("Created product id={}", saved.getId());
+        eventPublisher.publishEvent(changed(saved));
         return saved;
     }
 
-    public Product updateProduct(Long id, Product productDetails) {
+    /**
+     * Replaces the product's fields. A missing product is returned as a result, not thrown.
+     */
+    @Transactional
+    public Result<Product> updateProduct(Long id, Product productDetails) {
         if (id == null) {
             throw new IllegalArgumentException("Product id cannot be null");
         }
         logger.info("Updating product id={}", id);
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        Optional<Product> existing = productRepository.findById(id);
+        if (existing.isEmpty()) {
+            logger.debug("Product id={} not found", id);
+            return Result.notFound();
+        }
+        Product product = existing.get();
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setPrice(productDetails.getPrice());
         product.setStock(productDetails.getStock());
-        Product saved = productRepository.save(product);
+        Product saved = productRepository.saveAndFlush(product);
         logger.info("Updated product id={}", saved.getId());
-        return saved;
+        eventPublisher.publishEvent(changed(saved));
+        return Result.ok(saved);
     }
 
     public void deleteProduct(Long id) {
@@ -68,5 +132,60 @@ public class ProductService {
         }
         logger.info("Deleting product id={}", id);
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductsDeletedEvent(List.of(id)));
+    }
+
+    /**
+     * Applies price/stock deltas without loading entities: each batch of
+     * {@value #BULK_BATCH_SIZE} changes is one JDBC batch of guarded UPDATEs plus one SELECT
+     * of the new versions, in its own transaction, followed by one {@link ProductsChangedEvent}.
+     */
+    public BulkProductUpdateResult bulkUpdate(List<ProductDelta> changes) {
+        logger.info("Applying {} product deltas", changes.size());
+        List<ProductVersion> updated = new ArrayList<>();
+        List<Long> rejected = new ArrayList<>();
+        for (int from = 0; from < changes.size(); from += BULK_BATCH_SIZE) {
+            List<ProductDelta> batch = changes.subList(from, Math.min(from + BULK_BATCH_SIZE, changes.size()));
+            List<ProductVersion> versions = transactionTemplate.execute(status -> applyBatch(batch, rejected));
+            if (!versions.isEmpty()) {
+                eventPublisher.publishEvent(new ProductsChangedEvent(versions));
+                updated.addAll(versions);
+            }
+        }
+        logger.info("Applied {} product deltas, rejected {}", changes.size() - rejected.size(), rejected.size());
+        return new BulkProductUpdateResult(updated, rejected);
+    }
+
+    private static ProductsChangedEvent changed(Product product) {
+        return new ProductsChangedEvent(List.of(new ProductVersion(
+                product.getId(), product.getVersion(), product.getPrice(), product.getStock())));
+    }
+
+    private List<ProductVersion> applyBatch(List<ProductDelta> batch, List<Long> rejected) {
+        int[][] counts = jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batch, batch.size(), (ps, change) -> {
+            BigDecimal priceDelta = change.getPriceDelta() == null ? BigDecimal.ZERO : change.getPriceDelta();
+            int stockDelta = change.getStockDelta() == null ? 0 : change.getStockDelta();
+            ps.setBigDecimal(1, priceDelta);
+            ps.setInt(2, stockDelta);
+            ps.setLong(3, change.getId());
+            ps.setBigDecimal(4, priceDelta);
+            ps.setInt(5, stockDelta);
+        });
+        Set<Long> changedIds = new LinkedHashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts[0][i] == 0) {
+                rejected.add(batch.get(i).getId());
+            } else {
+                changedIds.add(batch.get(i).getId());
+            }
+        }
+        if (changedIds.isEmpty()) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query(
+                "SELECT id, version, price, stock FROM products WHERE id IN (:ids) ORDER BY id",
+                Map.of("ids", changedIds),
+                (rs, row) -> new ProductVersion(rs.getLong("id"), rs.getLong("version"),
+                        rs.getBigDecimal("price"), rs.getInt("stock")));
     }
 }
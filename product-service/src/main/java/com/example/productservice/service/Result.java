@@ -0,0 +1,30 @@
+package com.example.productservice.service;
+
+/**
+ * Outcome of a service call that can miss its record or reject its input in ordinary use.
+ * Those outcomes are returned rather than thrown, so a 404 or 400 costs no exception and no
+ * stack trace.
+ */
+public sealed interface Result<T> {
+
+    record Ok<T>(T value) implements Result<T> {
+    }
+
+    record NotFound<T>() implements Result<T> {
+    }
+
+    record Invalid<T>(String message) implements Result<T> {
+    }
+
+    static <T> Result<T> ok(T value) {
+        return new Ok<>(value);
+    }
+
+    static <T> Result<T> notFound() {
+        return new NotFound<>();
+    }
+
+    static <T> Result<T> invalid(String message) {
+        return new Invalid<>(message);
+    }
+}
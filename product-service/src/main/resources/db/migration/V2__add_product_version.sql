@@ -0,0 +1,2 @@
+-- Bumped by every update, single or bulk; doubles as the JPA optimistic lock
+ALTER TABLE products ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,39 @@
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal timing and allocation harness shared by the benchmarks in this directory.
+ * Numbers are indicative (single thread, no forking); compare runs on the same machine.
+ */
+final class Bench {
+
+    interface Op {
+        Object run() throws Exception;
+    }
+
+    record Result(double nanosPerOp, double bytesPerOp) {
+    }
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static volatile Object sink;
+
+    private Bench() {
+    }
+
+    static Result measure(int warmup, int iterations, Op op) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            sink = op.run();
+        }
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = op.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Result((double) elapsed / iterations, (double) allocated / iterations);
+    }
+}
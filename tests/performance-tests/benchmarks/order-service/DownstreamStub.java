@@ -0,0 +1,331 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for user-service and product-service, so order-service can be
+ * benchmarked and fault-tested on a laptop. Each pod is a JDK HttpServer on a loopback port
+ * with a fixed pool of handler threads, queueing what it cannot serve at once like a real
+ * pod. It answers the calls order-service makes: {@code GET /users/{id}},
+ * {@code GET /products/{id}} and the {@code ?size=} list pages, in Smile when asked for it
+ * and JSON otherwise. Ids 1 to {@code records} exist; others answer 404.
+ *
+ * <p>Every response waits for a delay drawn from the latency distribution, multiplied by
+ * the pod's slowdown. A share of requests per service, changeable while running, answers
+ * 503 instead. {@link #springArguments()} points order-service's load balancer at the pods.
+ *
+ * <p>Run on its own to stand in for both services on their usual ports:
+ * {@code run-benchmark.sh order-service DownstreamStub [median ms] [p99 ms] [error rate]}
+ */
+final class DownstreamStub implements AutoCloseable {
+
+    static final String USER_SERVICE = "user-service";
+    static final String PRODUCT_SERVICE = "product-service";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ObjectMapper SMILE = new SmileMapper();
+
+    static {
+        // HttpServer writes headers and body separately; with Nagle's algorithm on, a reused
+        // connection then waits out the client's delayed ACK (about 40 ms) on every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    /**
+     * Delay before a response, in nanoseconds.
+     */
+    interface Latency {
+        long sampleNanos();
+
+        static Latency none() {
+            return () -> 0;
+        }
+
+        static Latency fixed(Duration delay) {
+            return delay::toNanos;
+        }
+
+        static Latency uniform(Duration min, Duration max) {
+            return () -> ThreadLocalRandom.current().nextLong(min.toNanos(), max.toNanos() + 1);
+        }
+
+        /**
+         * Log-normal with the given median and 99th percentile: mostly near the median with
+         * a long tail, as measured service latency usually is.
+         */
+        static Latency logNormal(Duration median, Duration p99) {
+            double mu = Math.log(median.toNanos());
+            double sigma = (Math.log(p99.toNanos()) - mu) / 2.326;
+            return () -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+        }
+    }
+
+    /**
+     * One server of a service.
+     */
+    static final class Pod {
+        final String service;
+        final int index;
+        final double slowdown;
+        final HttpServer server;
+        final ExecutorService executor;
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        private Pod(String service, int index, double slowdown, HttpServer server, ExecutorService executor) {
+            this.service = service;
+            this.index = index;
+            this.slowdown = slowdown;
+            this.server = server;
+            this.executor = executor;
+        }
+
+        String uri() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+    }
+
+    static final class Builder {
+        private final Map<String, Integer> pods = new LinkedHashMap<>();
+        private final Map<String, Integer> firstPorts = new HashMap<>();
+        private final Map<String, Double> slowdowns = new HashMap<>();
+        /** Shared with the running stub, which reads it on every request. */
+        private final Map<String, Double> errorRates = new ConcurrentHashMap<>();
+        private Latency latency = Latency.none();
+        private int concurrency = 16;
+        private int records = 10_000;
+
+        private Builder() {
+            pods.put(USER_SERVICE, 1);
+            pods.put(PRODUCT_SERVICE, 1);
+        }
+
+        /** Number of pods of the service; 1 each by default. */
+        Builder pods(String service, int count) {
+            pods.put(service, count);
+            return this;
+        }
+
+        /** Binds the service's pods to this port and every tenth one after it instead of random ports. */
+        Builder firstPort(String service, int port) {
+            firstPorts.put(service, port);
+            return this;
+        }
+
+        /** Makes one pod of the service this many times slower than the others. */
+        Builder slowPod(String service, int index, double slowdown) {
+            slowdowns.put(service + "#" + index, slowdown);
+            return this;
+        }
+
+        Builder latency(Latency latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /** Requests each pod serves at a time; the rest wait in its queue. */
+        Builder concurrency(int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        Builder errorRate(String service, double rate) {
+            errorRates.put(service, rate);
+            return this;
+        }
+
+        /** Users and products with ids 1 to this exist. */
+        Builder records(int records) {
+            this.records = records;
+            return this;
+        }
+
+        DownstreamStub start() throws IOException {
+            DownstreamStub stub = new DownstreamStub(latency, records, errorRates);
+            try {
+                for (Map.Entry<String, Integer> service : pods.entrySet()) {
+                    for (int i = 0; i < service.getValue(); i++) {
+                        Integer firstPort = firstPorts.get(service.getKey());
+                        stub.startPod(service.getKey(), i, firstPort == null ? 0 : firstPort + 10 * i,
+                                slowdowns.getOrDefault(service.getKey() + "#" + i, 1.0), concurrency);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                stub.close();
+                throw e;
+            }
+            return stub;
+        }
+    }
+
+    private final Latency latency;
+    private final int records;
+    private final Map<String, Double> errorRates;
+    private final List<Pod> pods = new ArrayList<>();
+
+    private DownstreamStub(Latency latency, int records, Map<String, Double> errorRates) {
+        this.latency = latency;
+        this.records = records;
+        this.errorRates = errorRates;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    public static void main(String[] args) throws Exception {
+        double median = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        double p99 = args.length > 1 ? Double.parseDouble(args[1]) : 20;
+        double errorRate = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+        DownstreamStub stub = builder()
+                .firstPort(USER_SERVICE, 8081)
+                .firstPort(PRODUCT_SERVICE, 8082)
+                .latency(Latency.logNormal(Duration.ofNanos((long) (median * 1e6)), Duration.ofNanos((long) (p99 * 1e6))))
+                .errorRate(USER_SERVICE, errorRate)
+                .errorRate(PRODUCT_SERVICE, errorRate)
+                .start();
+        Runtime.getRuntime().addShutdownHook(new Thread(stub::close));
+        for (Pod pod : stub.pods()) {
+            System.out.printf("%s pod %d on %s%n", pod.service, pod.index, pod.uri());
+        }
+        System.out.printf("Latency median %.1f ms, p99 %.1f ms, error rate %.2f; Ctrl-C to stop%n", median, p99, errorRate);
+        Thread.currentThread().join();
+    }
+
+    List<Pod> pods() {
+        return pods;
+    }
+
+    List<Pod> pods(String service) {
+        return pods.stream().filter(pod -> pod.service.equals(service)).toList();
+    }
+
+    /** Changes the share of the service's requests that answer 503, effective immediately. */
+    void setErrorRate(String service, double rate) {
+        errorRates.put(service, rate);
+    }
+
+    void resetCounts() {
+        pods.forEach(pod -> {
+            pod.calls.set(0);
+            pod.errors.set(0);
+        });
+    }
+
+    /**
+     * Properties that point order-service's load balancer at these pods instead of
+     * Kubernetes discovery.
+     */
+    List<String> springArguments() {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--spring.cloud.kubernetes.discovery.enabled=false");
+        for (String service : List.of(USER_SERVICE, PRODUCT_SERVICE)) {
+            List<Pod> servicePods = pods(service);
+            for (int i = 0; i < servicePods.size(); i++) {
+                arguments.add("--spring.cloud.discovery.client.simple.instances." + service + "[" + i + "].uri="
+                        + servicePods.get(i).uri());
+            }
+        }
+        return arguments;
+    }
+
+    @Override
+    public void close() {
+        for (Pod pod : pods) {
+            pod.server.stop(0);
+            pod.executor.shutdownNow();
+        }
+    }
+
+    private void startPod(String service, int index, int port, double slowdown, int concurrency) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 256);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        Pod pod = new Pod(service, index, slowdown, server, executor);
+        String path = service.equals(USER_SERVICE) ? "/users" : "/products";
+        server.createContext(path, exchange -> handle(pod, path, exchange));
+        server.setExecutor(executor);
+        server.start();
+        pods.add(pod);
+    }
+
+    private void handle(Pod pod, String path, HttpExchange exchange) throws IOException {
+        try (exchange) {
+            pod.calls.incrementAndGet();
+            long delay = (long) (latency.sampleNanos() * pod.slowdown);
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            if (ThreadLocalRandom.current().nextDouble() < errorRates.getOrDefault(pod.service, 0.0)) {
+                pod.errors.incrementAndGet();
+                respond(exchange, 503, Map.of("error", "injected failure"));
+                return;
+            }
+            String rest = exchange.getRequestURI().getPath().substring(path.length());
+            if (rest.isEmpty() || rest.equals("/")) {
+                List<Map<String, Object>> content = new ArrayList<>();
+                for (long id = 1; id <= Math.min(20, records); id++) {
+                    content.add(record(pod.service, id));
+                }
+                respond(exchange, 200, Map.of("content", content));
+                return;
+            }
+            long id;
+            try {
+                id = Long.parseLong(rest.substring(1));
+            } catch (NumberFormatException e) {
+                respond(exchange, 400, Map.of("error", "invalid id"));
+                return;
+            }
+            if (id < 1 || id > records) {
+                respond(exchange, 404, Map.of("error", "not found"));
+                return;
+            }
+            respond(exchange, 200, record(pod.service, id));
+        }
+    }
+
+    private static Map<String, Object> record(String service, long id) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("id", id);
+        if (service.equals(USER_SERVICE)) {
+            record.put("name", "User " + id);
+            record.put("email", "user" + id + "@example.com");
+        } else {
+            record.put("name", "Product " + id);
+            record.put("description", "Stand-in product " + id);
+            record.put("price", BigDecimal.valueOf(100 + id % 900, 2));
+            record.put("stock", 1_000_000);
+        }
+        return record;
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        boolean smile = accept != null && accept.contains("application/x-jackson-smile");
+        byte[] bytes = (smile ? SMILE : JSON).writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", smile ? "application/x-jackson-smile" : "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import com.example.orderservice.Application;
+import com.example.orderservice.exception.ServiceUnavailableException;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of answering 503 while product-service is down. First in isolation, 120 frames below
+ * its handler: the fresh IllegalArgumentException createOrderFallback used to throw vs the
+ * preallocated, stackless {@link ServiceUnavailableException}. Then over HTTP under load:
+ * POST /orders with every product lookup failing, so the productService circuit is open and
+ * each order is rejected by the fallback, with the circuit breaker's
+ * {@code writableStackTraceEnabled} on (its default) and off (as configured).
+ *
+ * Usage: run-benchmark.sh order-service ErrorPathBenchmark [clients] [requests]
+ */
+public class ErrorPathBenchmark {
+
+    private static final int DEPTH = 120;
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private static final String BODY = "{\"userId\":1,\"productId\":1,\"quantity\":1}";
+
+    private interface Failure {
+        Object run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        System.out.printf("%-32s %10s %10s%n", "fallback, 120 frames deep", "ns/op", "B/op");
+        for (int round = 0; round < 2; round++) {
+            print("throw new IllegalArgumentException", Bench.measure(50_000, 200_000, () -> caught(() -> {
+                throw new IllegalArgumentException("Product service is currently unavailable. Please try again later.");
+            })));
+            print("throw PRODUCT_SERVICE", Bench.measure(50_000, 200_000, () -> caught(() -> {
+                throw ServiceUnavailableException.PRODUCT_SERVICE;
+            })));
+        }
+        System.out.println();
+
+        try (DownstreamStub stub = DownstreamStub.builder().records(1_000).concurrency(64)
+                .errorRate(DownstreamStub.PRODUCT_SERVICE, 1.0).start()) {
+            System.out.printf("%d clients, %,d requests per run, product-service failing every call%n", clients, requests);
+            System.out.printf("%-32s %8s %8s %8s %8s %6s%n", "POST /orders", "req/s", "mean ms", "p50 ms", "p99 ms",
+                    "status");
+            for (boolean stackTraces : new boolean[] {true, false}) {
+                try (ConfigurableApplicationContext context = start(stub, stackTraces)) {
+                    String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                    // Opens the circuit and warms the JIT up
+                    run(base, clients, requests / 2);
+                    String label = "stack traces " + (stackTraces ? "on" : "off");
+                    run(base, clients, requests).print(label);
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(DownstreamStub stub, boolean stackTraces) {
+        List<String> arguments = new ArrayList<>(stub.springArguments());
+        arguments.addAll(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:error-bench-" + stackTraces + ";DB_CLOSE_DELAY=-1",
+                "--resilience4j.circuitbreaker.instances.productService.writable-stack-trace-enabled=" + stackTraces,
+                "--app.warmup.enabled=false",
+                "--app.processing.enabled=false",
+                "--app.jfr.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.orderservice=OFF",
+                "--logging.level.io.opentelemetry=OFF",
+                "--management.tracing.enabled=false",
+                "--management.otlp.metrics.export.enabled=false"));
+        return new SpringApplication(Application.class).run(arguments.toArray(String[]::new));
+    }
+
+    /** Runs {@code failure} {@link #DEPTH} frames down and hands back what it threw. */
+    private static Object caught(Failure failure) {
+        try {
+            return descend(DEPTH, failure);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private static Object descend(int depth, Failure failure) {
+        return depth == 0 ? failure.run() : descend(depth - 1, failure);
+    }
+
+    private record Outcome(double seconds, long[] nanos, int unexpected) {
+
+        void print(String label) {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-32s %8.0f %8.2f %8.2f %8.2f %6s%n", label, sorted.length / seconds,
+                    Arrays.stream(sorted).average().orElse(0) / 1e6, sorted[sorted.length / 2] / 1e6,
+                    sorted[(int) (sorted.length * 0.99)] / 1e6, unexpected == 0 ? "503" : "mixed");
+        }
+    }
+
+    private static Outcome run(String base, int clients, int requests) throws Exception {
+        long[] nanos = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            workers.add(executor.submit(() -> {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/orders"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(BODY))
+                        .build();
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    long begin = System.nanoTime();
+                    if (HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 503) {
+                        unexpected.incrementAndGet();
+                    }
+                    nanos[i] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        return new Outcome(seconds, nanos, unexpected.get());
+    }
+
+    private static void print(String label, Bench.Result result) {
+        System.out.printf("%-32s %10.0f %10.0f%n", label, result.nanosPerOp(), result.bytesPerOp());
+    }
+}
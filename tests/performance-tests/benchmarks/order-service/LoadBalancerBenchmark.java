@@ -0,0 +1,131 @@
+import com.example.orderservice.config.InstanceLoadTracker;
+import com.example.orderservice.config.LatencyAwareLoadBalancer;
+import com.example.orderservice.config.LoadBalancerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Round robin vs power-of-two-choices over a latency average, for one service with four
+ * stand-in instances of which one is ten times slower. Each instance serves a limited number
+ * of calls at a time and queues the rest, like a pod with a fixed thread pool. Calls go
+ * through the real load balancers and the same lifecycle callbacks the blocking client makes;
+ * only the remote call itself is simulated with a sleep.
+ *
+ * Usage: run-benchmark.sh order-service LoadBalancerBenchmark [clients] [callsPerClient]
+ */
+public class LoadBalancerBenchmark {
+
+    private static final String SERVICE = "product-service";
+    private static final long[] SERVICE_NANOS = { 2_000_000, 2_000_000, 2_000_000, 20_000_000 };
+    private static final int INSTANCE_CONCURRENCY = 8;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        ServiceInstance[] instances = new ServiceInstance[SERVICE_NANOS.length];
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = new DefaultServiceInstance(SERVICE + "-" + i, SERVICE, "10.0.0." + (i + 1), 8082, false);
+        }
+        ObjectProvider<ServiceInstanceListSupplier> suppliers = new StaticListableBeanFactory(
+                Map.of("supplier", ServiceInstanceListSuppliers.from(SERVICE, instances)))
+                .getBeanProvider(ServiceInstanceListSupplier.class);
+
+        System.out.printf("%d clients x %d calls; instances take %s ms, %d calls at a time each%n%n",
+                clients, calls, Arrays.toString(Arrays.stream(SERVICE_NANOS).map(n -> n / 1_000_000).toArray()),
+                INSTANCE_CONCURRENCY);
+        System.out.printf("%-14s %9s %9s %9s %9s %11s%n", "strategy", "mean ms", "p50 ms", "p99 ms",
+                "max ms", "slow share");
+        for (int round = 0; round < 2; round++) {
+            InstanceLoadTracker tracker = new InstanceLoadTracker(new LoadBalancerProperties(true,
+                    Duration.ofSeconds(10), Duration.ofMillis(50), Duration.ofSeconds(1)), new SimpleMeterRegistry());
+            // The first round warms up the JIT and is not printed
+            run("round robin", new RoundRobinLoadBalancer(suppliers, SERVICE), tracker, instances,
+                    clients, calls, round > 0);
+            run("p2c latency", new LatencyAwareLoadBalancer(SERVICE, suppliers, tracker), tracker, instances,
+                    clients, calls, round > 0);
+        }
+    }
+
+    private static void run(String label, ReactorServiceInstanceLoadBalancer balancer, InstanceLoadTracker tracker,
+            ServiceInstance[] instances, int clients, int calls, boolean print) throws Exception {
+        Map<ServiceInstance, Semaphore> capacity = new HashMap<>();
+        Map<ServiceInstance, Long> serviceNanos = new HashMap<>();
+        for (int i = 0; i < instances.length; i++) {
+            capacity.put(instances[i], new Semaphore(INSTANCE_CONCURRENCY, true));
+            serviceNanos.put(instances[i], SERVICE_NANOS[i]);
+        }
+        ServiceInstance slowest = instances[instances.length - 1];
+        long[] latencies = new long[clients * calls];
+        AtomicInteger slowCalls = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(clients)) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                executor.submit(() -> {
+                    for (int i = 0; i < calls; i++) {
+                        Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+                        long start = System.nanoTime();
+                        Response<ServiceInstance> response = Mono.from(balancer.choose(request)).block();
+                        ServiceInstance instance = response.getServer();
+                        tracker.onStartRequest((Request) request, response);
+                        call(capacity.get(instance), serviceNanos.get(instance));
+                        tracker.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, (Request) request, response));
+                        latencies[client * calls + i] = System.nanoTime() - start;
+                        if (instance == slowest) {
+                            slowCalls.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        if (print) {
+            Arrays.sort(latencies);
+            System.out.printf("%-14s %9.2f %9.2f %9.2f %9.2f %10.1f%%%n", label,
+                    Arrays.stream(latencies).average().orElse(0) / 1e6,
+                    latencies[latencies.length / 2] / 1e6,
+                    latencies[(int) (latencies.length * 0.99)] / 1e6,
+                    latencies[latencies.length - 1] / 1e6,
+                    100.0 * slowCalls.get() / latencies.length);
+        }
+    }
+
+    /**
+     * Waits for one of the instance's slots, then holds it for the service time with +-25%
+     * jitter.
+     */
+    private static void call(Semaphore slots, long nanos) {
+        slots.acquireUninterruptibly();
+        try {
+            LockSupport.parkNanos((long) (nanos * ThreadLocalRandom.current().nextDouble(0.75, 1.25)));
+        } finally {
+            slots.release();
+        }
+    }
+}
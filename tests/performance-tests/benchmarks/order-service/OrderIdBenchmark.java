@@ -0,0 +1,133 @@
+import com.example.orderservice.service.OrderIdGenerator;
+import com.example.orderservice.service.OrderShards;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Order ids drawn from many threads at once: the earlier allocator (a synchronized block
+ * handing out 1000 values per {@code order_id_seq} fetch from an in-memory H2 database) vs
+ * {@link OrderIdGenerator} (compare-and-set on one counter, no database). Reports millions of
+ * ids per second per thread count, checks that every id is unique and that each thread sees
+ * its ids grow, and shows how far the generator ran ahead of the clock: past 128 ids per
+ * millisecond it takes the next millisecond's values early.
+ *
+ * Usage: run-benchmark.sh order-service OrderIdBenchmark [ids per thread] [thread counts, e.g. 1,4,16,64]
+ */
+public class OrderIdBenchmark {
+
+    private interface IdSource {
+        long nextId(int bucket) throws Exception;
+    }
+
+    /** Ids drawn by each thread, in order. */
+    private record Run(long[][] ids, double seconds) {
+    }
+
+    /**
+     * The hi/lo allocator order-service used before {@link OrderIdGenerator}.
+     */
+    private static final class HiLoAllocator implements IdSource {
+        private final Connection connection;
+        private long next;
+        private long limit;
+
+        HiLoAllocator(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public synchronized long nextId(int bucket) throws SQLException {
+            if (next >= limit) {
+                try (Statement statement = connection.createStatement();
+                     ResultSet result = statement.executeQuery("SELECT NEXT VALUE FOR order_id_seq")) {
+                    result.next();
+                    next = result.getLong(1);
+                    limit = next + 1000;
+                }
+            }
+            return (next++ << OrderShards.BUCKET_BITS) | bucket;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int[] threadCounts = Arrays.stream((args.length > 1 ? args[1] : "1,4,16,64").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:order-ids")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE SEQUENCE order_id_seq START WITH 2097152 INCREMENT BY 1000");
+            }
+            System.out.printf("%,d ids per thread%n%n", perThread);
+            System.out.printf("%-24s %8s %10s %8s %14s%n", "source", "threads", "M ids/s", "unique", "ms ahead");
+            for (int threads : threadCounts) {
+                // First round of each warms the JIT up
+                run(new HiLoAllocator(connection), threads, perThread);
+                print("hi/lo, synchronized", threads, run(new HiLoAllocator(connection), threads, perThread), 0);
+                run(new OrderIdGenerator(0, System::currentTimeMillis)::nextId, threads, perThread);
+                Run generated = run(new OrderIdGenerator(0, System::currentTimeMillis)::nextId, threads, perThread);
+                long newest = Arrays.stream(generated.ids()).flatMapToLong(Arrays::stream).max().orElse(0);
+                long issuedAt = (newest >>> (OrderIdGenerator.NODE_BITS + OrderIdGenerator.SEQUENCE_BITS
+                        + OrderShards.BUCKET_BITS)) + OrderIdGenerator.EPOCH.toEpochMilli();
+                print("time-ordered, CAS", threads, generated, issuedAt - System.currentTimeMillis());
+            }
+        }
+    }
+
+    private static Run run(IdSource source, int threads, int perThread) throws Exception {
+        long[][] ids = new long[threads][perThread];
+        CyclicBarrier start = new CyclicBarrier(threads + 1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long[] own = ids[t];
+            workers.add(executor.submit(() -> {
+                int bucket = ThreadLocalRandom.current().nextInt(OrderShards.BUCKETS);
+                start.await();
+                for (int i = 0; i < own.length; i++) {
+                    own[i] = source.nextId(bucket);
+                }
+                return null;
+            }));
+        }
+        start.await();
+        long begin = System.nanoTime();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+        return new Run(ids, seconds);
+    }
+
+    private static void print(String label, int threads, Run run, long aheadMillis) {
+        long[][] ids = run.ids();
+        long total = (long) threads * ids[0].length;
+        for (long[] own : ids) {
+            for (int i = 1; i < own.length; i++) {
+                if (own[i] <= own[i - 1]) {
+                    throw new IllegalStateException(label + ": ids went backwards within a thread");
+                }
+            }
+        }
+        long[] all = Arrays.stream(ids).flatMapToLong(Arrays::stream).sorted().toArray();
+        boolean unique = true;
+        for (int i = 1; i < all.length && unique; i++) {
+            unique = all[i] != all[i - 1];
+        }
+        System.out.printf("%-24s %8d %10.1f %8s %14s%n", label, threads, total / run.seconds() / 1e6, unique ? "yes" : "NO",
+                aheadMillis > 0 ? String.format("%,d", aheadMillis) : "-");
+    }
+}
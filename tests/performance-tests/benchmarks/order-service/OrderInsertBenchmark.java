@@ -0,0 +1,138 @@
+import com.example.orderservice.Application;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Order creates over HTTP with one transaction per order vs group commit
+ * ({@code app.order-batching}) at a few batch delays, for growing numbers of concurrent
+ * clients: throughput against mean, median and 99th percentile latency. order-service runs
+ * in-process on a file-backed H2 database, with DownstreamStub answering the product lookup
+ * without delay, so the insert path is most of the work.
+ *
+ * Usage: run-benchmark.sh order-service OrderInsertBenchmark [requests per run] [client counts, e.g. 1,16,64]
+ */
+public class OrderInsertBenchmark {
+
+    private static final int RECORDS = 1_000;
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    /** Batching off, then on with each of these delays. */
+    private static final List<String> MODES = List.of("off", "1ms", "5ms");
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int[] clientCounts = Arrays.stream((args.length > 1 ? args[1] : "1,16,64").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+
+        try (DownstreamStub stub = DownstreamStub.builder().records(RECORDS).concurrency(64).start()) {
+            System.out.printf("%,d creates per run%n%n", requests);
+            System.out.printf("%-16s %8s %8s %8s %8s %8s %6s%n", "group commit", "clients", "req/s", "mean ms",
+                    "p50 ms", "p99 ms", "failed");
+            for (String mode : MODES) {
+                Path directory = Files.createTempDirectory("order-insert-bench");
+                try (ConfigurableApplicationContext context = start(stub, directory, mode)) {
+                    String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                    run(base, 16, requests / 2);
+                    for (int clients : clientCounts) {
+                        print(mode, clients, run(base, clients, requests));
+                    }
+                } finally {
+                    try (Stream<Path> files = Files.walk(directory)) {
+                        files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+                    }
+                }
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(DownstreamStub stub, Path directory, String mode) {
+        List<String> arguments = new ArrayList<>(stub.springArguments());
+        arguments.addAll(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:file:" + directory.resolve("orders") + ";DB_CLOSE_DELAY=-1",
+                "--app.order-batching.enabled=" + !mode.equals("off"),
+                "--app.order-batching.max-delay=" + (mode.equals("off") ? "5ms" : mode),
+                "--app.warmup.enabled=false",
+                "--app.processing.enabled=false",
+                "--app.jfr.enabled=false",
+                // Concurrent first orders of one user collide on its summary row and are retried;
+                // keep the constraint errors they log out of the output
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.orderservice=OFF",
+                "--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=OFF",
+                "--logging.level.io.opentelemetry=OFF",
+                "--management.tracing.enabled=false",
+                "--management.otlp.metrics.export.enabled=false"));
+        return new SpringApplication(Application.class).run(arguments.toArray(String[]::new));
+    }
+
+    private record Outcome(double seconds, long[] nanos, int failed) {
+    }
+
+    private static Outcome run(String base, int clients, int requests) throws Exception {
+        long[] nanos = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            workers.add(executor.submit(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    long begin = System.nanoTime();
+                    if (!createOrder(base)) {
+                        failed.incrementAndGet();
+                    }
+                    nanos[i] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        return new Outcome(seconds, nanos, failed.get());
+    }
+
+    private static boolean createOrder(String base) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = "{\"userId\":" + (1 + random.nextInt(RECORDS)) + ",\"productId\":" + (1 + random.nextInt(RECORDS))
+                + ",\"quantity\":1}";
+        try {
+            return HTTP.send(HttpRequest.newBuilder(URI.create(base + "/orders"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.discarding()).statusCode() == 201;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void print(String mode, int clients, Outcome outcome) {
+        long[] sorted = outcome.nanos().clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-16s %8d %8.0f %8.2f %8.2f %8.2f %6d%n", mode, clients, sorted.length / outcome.seconds(),
+                Arrays.stream(sorted).average().orElse(0) / 1e6, sorted[sorted.length / 2] / 1e6,
+                sorted[(int) (sorted.length * 0.99)] / 1e6, outcome.failed());
+    }
+}
@@ -0,0 +1,189 @@
+import com.example.orderservice.Application;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * order-service end to end over HTTP, started in-process against DownstreamStub instead of
+ * deployed user-service and product-service. Three product-service pods, one ten times
+ * slower, and two user-service pods, all with log-normal latency (median 2 ms, p99 10 ms).
+ *
+ * Order creates (one product lookup each) and enriched order reads (a user and a product
+ * lookup each) run with round-robin and with latency-aware load balancing, reporting
+ * throughput, latency percentiles and how many product calls the slow pod got. A last run
+ * makes half of product-service's answers fail, to show the circuit breaker turning creates
+ * into fast rejections instead of slow errors.
+ *
+ * Usage: run-benchmark.sh order-service OrderServiceBenchmark [clients] [requests]
+ */
+public class OrderServiceBenchmark {
+
+    private static final Pattern ORDER_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final int RECORDS = 1_000;
+
+    private record Outcome(double seconds, long[] nanos, int ok, int failed) {
+    }
+
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 4_000;
+
+        try (DownstreamStub stub = DownstreamStub.builder()
+                .pods(DownstreamStub.USER_SERVICE, 2)
+                .pods(DownstreamStub.PRODUCT_SERVICE, 3)
+                .slowPod(DownstreamStub.PRODUCT_SERVICE, 2, 10)
+                .latency(DownstreamStub.Latency.logNormal(Duration.ofMillis(2), Duration.ofMillis(10)))
+                .concurrency(8)
+                .records(RECORDS)
+                .start()) {
+            System.out.printf("%d clients, %d requests per run%n%n", clients, requests);
+            System.out.printf("%-30s %8s %8s %8s %8s %6s %10s%n", "run", "req/s", "mean ms", "p50 ms", "p99 ms",
+                    "failed", "slow pod");
+            for (boolean latencyAware : new boolean[] { false, true }) {
+                String balancer = latencyAware ? "latency-aware" : "round robin";
+                try (ConfigurableApplicationContext context = start(stub, latencyAware)) {
+                    String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                    run(stub, base, clients, requests / 4, "warm-up " + balancer, false);
+                    ConcurrentLinkedQueue<Long> ids = new ConcurrentLinkedQueue<>();
+                    Outcome creates = run(stub, base, clients, requests, "create " + balancer, true,
+                            i -> createOrder(base, ids));
+                    Long[] orderIds = ids.toArray(Long[]::new);
+                    run(stub, base, clients, requests, "read " + balancer, true,
+                            i -> get(base + "/orders/" + orderIds[ThreadLocalRandom.current().nextInt(orderIds.length)]));
+                    if (creates.ok() == 0) {
+                        throw new IllegalStateException("No order was created; is order-service reaching the stub?");
+                    }
+                }
+            }
+
+            System.out.println();
+            try (ConfigurableApplicationContext context = start(stub, true)) {
+                String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                run(stub, base, clients, requests / 4, "warm-up faults", false);
+                stub.setErrorRate(DownstreamStub.PRODUCT_SERVICE, 0.5);
+                run(stub, base, clients, requests, "create, 50% product errors", true,
+                        i -> createOrder(base, new ConcurrentLinkedQueue<>()));
+                long reached = stub.pods(DownstreamStub.PRODUCT_SERVICE).stream().mapToLong(pod -> pod.calls.get()).sum();
+                System.out.printf("%d of %d creates reached product-service; the open circuit rejected the rest%n",
+                        reached, requests);
+                stub.setErrorRate(DownstreamStub.PRODUCT_SERVICE, 0);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(DownstreamStub stub, boolean latencyAware) {
+        List<String> arguments = new ArrayList<>(stub.springArguments());
+        arguments.addAll(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:order-bench-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1",
+                "--app.loadbalancer.latency-aware=" + latencyAware,
+                "--app.warmup.enabled=false",
+                "--app.processing.enabled=false",
+                "--app.jfr.enabled=false",
+                // Injected failures are logged as errors by design; no collector is running either
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.orderservice=OFF",
+                "--logging.level.io.opentelemetry=OFF",
+                "--management.tracing.enabled=false",
+                "--management.otlp.metrics.export.enabled=false"));
+        return new SpringApplication(Application.class).run(arguments.toArray(String[]::new));
+    }
+
+    private static boolean createOrder(String base, ConcurrentLinkedQueue<Long> ids) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = "{\"userId\":" + (1 + random.nextInt(RECORDS)) + ",\"productId\":" + (1 + random.nextInt(RECORDS))
+                + ",\"quantity\":1}";
+        HttpResponse<String> response = HTTP.send(HttpRequest.newBuilder(URI.create(base + "/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            return false;
+        }
+        Matcher id = ORDER_ID.matcher(response.body());
+        if (id.find()) {
+            ids.add(Long.parseLong(id.group(1)));
+        }
+        return true;
+    }
+
+    private static boolean get(String url) throws Exception {
+        return HTTP.send(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode() == 200;
+    }
+
+    private interface Call {
+        boolean run(int i) throws Exception;
+    }
+
+    private static Outcome run(DownstreamStub stub, String base, int clients, int requests, String label,
+            boolean print) throws Exception {
+        return run(stub, base, clients, requests, label, print, i -> createOrder(base, new ConcurrentLinkedQueue<>()));
+    }
+
+    private static Outcome run(DownstreamStub stub, String base, int clients, int requests, String label,
+            boolean print, Call call) throws Exception {
+        stub.resetCounts();
+        long[] nanos = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger ok = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            workers.add(executor.submit(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    long begin = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = call.run(i);
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    nanos[i] = System.nanoTime() - begin;
+                    if (success) {
+                        ok.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        Outcome outcome = new Outcome(seconds, nanos, ok.get(), requests - ok.get());
+        if (print) {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            List<DownstreamStub.Pod> products = stub.pods(DownstreamStub.PRODUCT_SERVICE);
+            long productCalls = products.stream().mapToLong(pod -> pod.calls.get()).sum();
+            long slowCalls = products.stream().filter(pod -> pod.slowdown > 1).mapToLong(pod -> pod.calls.get()).sum();
+            System.out.printf("%-30s %8.0f %8.1f %8.1f %8.1f %6d %9.1f%%%n", label, requests / seconds,
+                    Arrays.stream(nanos).average().orElse(0) / 1e6, sorted[requests / 2] / 1e6,
+                    sorted[(int) (requests * 0.99)] / 1e6, outcome.failed(),
+                    productCalls == 0 ? 0 : 100.0 * slowCalls / productCalls);
+        }
+        return outcome;
+    }
+}
@@ -0,0 +1,88 @@
+import com.example.orderservice.dto.ProductResponse;
+import com.example.orderservice.dto.UserResponse;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares payload size and decode cost for the downstream responses order-service reads:
+ * JSON into an untyped Map (the previous client path), JSON into typed records, and Smile
+ * into typed records.
+ *
+ * Usage: run-benchmark.sh order-service PayloadCodecBenchmark [iterations]
+ */
+public class PayloadCodecBenchmark {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ProductPage(List<ProductResponse> content) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int warmup = iterations / 2;
+
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper smile = new SmileMapper();
+
+        Map<String, Object> product = product(42);
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", 7L);
+        user.put("name", "User 7");
+        user.put("email", "user7@example.com");
+        user.put("phone", "555-0107");
+        Map<String, Object> page = page(20);
+
+        System.out.printf("%-10s %8s %8s %14s %14s %14s %14s %14s %14s%n",
+                "payload", "json B", "smile B",
+                "map-json ns", "typed-json ns", "typed-smile ns",
+                "map-json B/op", "typed-json B/op", "typed-smile B/op");
+        run("product", product, ProductResponse.class, json, smile, warmup, iterations);
+        run("user", user, UserResponse.class, json, smile, warmup, iterations);
+        run("page(20)", page, ProductPage.class, json, smile, warmup, iterations / 10);
+    }
+
+    private static void run(String label, Map<String, Object> payload, Class<?> type,
+            ObjectMapper json, ObjectMapper smile, int warmup, int iterations) throws Exception {
+        byte[] jsonBytes = json.writeValueAsBytes(payload);
+        byte[] smileBytes = smile.writeValueAsBytes(payload);
+
+        Bench.Result mapJson = Bench.measure(warmup, iterations, () -> json.readValue(jsonBytes, Map.class));
+        Bench.Result typedJson = Bench.measure(warmup, iterations, () -> json.readValue(jsonBytes, type));
+        Bench.Result typedSmile = Bench.measure(warmup, iterations, () -> smile.readValue(smileBytes, type));
+
+        System.out.printf("%-10s %8d %8d %14.0f %14.0f %14.0f %14.0f %14.0f %14.0f%n",
+                label, jsonBytes.length, smileBytes.length,
+                mapJson.nanosPerOp(), typedJson.nanosPerOp(), typedSmile.nanosPerOp(),
+                mapJson.bytesPerOp(), typedJson.bytesPerOp(), typedSmile.bytesPerOp());
+    }
+
+    private static Map<String, Object> product(long id) {
+        Map<String, Object> product = new LinkedHashMap<>();
+        product.put("id", id);
+        product.put("name", "Product " + id);
+        product.put("description", "Description for product " + id);
+        product.put("price", new BigDecimal("129.99"));
+        product.put("stock", 250);
+        return product;
+    }
+
+    private static Map<String, Object> page(int size) {
+        List<Map<String, Object>> content = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            content.add(product(i + 1));
+        }
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("content", content);
+        page.put("totalElements", 1000);
+        page.put("totalPages", 1000 / size);
+        page.put("size", size);
+        page.put("number", 0);
+        return page;
+    }
+}
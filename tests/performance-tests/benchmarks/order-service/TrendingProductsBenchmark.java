@@ -0,0 +1,126 @@
+import com.example.orderservice.config.TrendingProperties;
+import com.example.orderservice.dto.TrendingProduct;
+import com.example.orderservice.service.TrendingProducts;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Trending products from the sketch vs exact counting in a HashMap, for Zipf-distributed
+ * orders over a large catalog: cost per order and per top-10 read, retained heap, and how
+ * well the sketch's top 10 and top 100 match the exact ones (recall) and by how much its
+ * counts overshoot.
+ *
+ * Usage: run-benchmark.sh order-service TrendingProductsBenchmark [catalog] [orders] [zipf exponent]
+ */
+public class TrendingProductsBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int catalog = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        double exponent = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+        TrendingProperties properties = new TrendingProperties(Duration.ofHours(1), 12, 4, 4096, 100);
+
+        long[] productIds = zipf(catalog, orders, exponent, new SplittableRandom(42));
+        TrendingProducts sketch = new TrendingProducts(properties);
+        Map<Long, Long> exact = new HashMap<>();
+        for (long productId : productIds) {
+            sketch.orderPlaced(productId);
+            exact.merge(productId, 1L, Long::sum);
+        }
+        System.out.printf("%,d orders over %,d products (zipf %.1f), %,d distinct ordered%n%n",
+                orders, catalog, exponent, exact.size());
+
+        System.out.printf("%-8s %10s %18s %18s%n", "top", "recall", "mean overshoot", "max overshoot");
+        for (int k : new int[] { 10, 100 }) {
+            List<TrendingProduct> estimated = sketch.top(k);
+            List<Long> truth = exactTop(exact, k);
+            long hits = estimated.stream().filter(product -> truth.contains(product.productId())).count();
+            double[] overshoot = estimated.stream()
+                    .mapToDouble(product -> (double) (product.orders() - exact.getOrDefault(product.productId(), 0L))
+                            / exact.getOrDefault(product.productId(), 1L))
+                    .toArray();
+            System.out.printf("%-8d %9.0f%% %17.2f%% %17.2f%%%n", k, 100.0 * hits / k,
+                    100 * Arrays.stream(overshoot).average().orElse(0), 100 * Arrays.stream(overshoot).max().orElse(0));
+        }
+        System.out.println();
+
+        System.out.printf("%-28s %14s%n", "footprint", "retained B");
+        // The sketch's counters are fixed; its candidate set adds a few tens of KB
+        System.out.printf("%-28s %,14d%n", "sketch counters",
+                (long) properties.buckets() * properties.depth() * properties.width() * Integer.BYTES);
+        System.out.printf("%-28s %,14d%n%n", "exact HashMap", retained(() -> {
+            Map<Long, Long> copy = new HashMap<>();
+            for (long productId : productIds) {
+                copy.merge(productId, 1L, Long::sum);
+            }
+            return copy;
+        }));
+
+        int[] next = { 0 };
+        System.out.printf("%-28s %10s %10s%n", "operation", "ns/op", "B/op");
+        print("sketch orderPlaced", Bench.measure(orders / 2, orders, () -> {
+            sketch.orderPlaced(productIds[next[0]++ % productIds.length]);
+            return null;
+        }));
+        print("exact merge", Bench.measure(orders / 2, orders,
+                () -> exact.merge(productIds[next[0]++ % productIds.length], 1L, Long::sum)));
+        print("sketch top(10)", Bench.measure(10_000, 100_000, () -> sketch.top(10)));
+        print("exact top(10) by full sort", Bench.measure(5, 20, () -> exactTop(exact, 10)));
+    }
+
+    private static List<Long> exactTop(Map<Long, Long> counts, int k) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .limit(k)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Product ids 1..catalog drawn with probability proportional to {@code 1 / rank^exponent}.
+     */
+    private static long[] zipf(int catalog, int samples, double exponent, SplittableRandom random) {
+        double[] cumulative = new double[catalog];
+        double total = 0;
+        for (int rank = 1; rank <= catalog; rank++) {
+            total += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = total;
+        }
+        long[] ids = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            ids[i] = (index >= 0 ? index : -index - 1) + 1;
+        }
+        return ids;
+    }
+
+    private static long retained(Bench.Op op) throws Exception {
+        long before = usedAfterGc();
+        Object value = op.run();
+        long after = usedAfterGc();
+        Bench.sink = value;
+        return after - before;
+    }
+
+    private static long usedAfterGc() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void print(String label, Bench.Result result) {
+        System.out.printf("%-28s %10.0f %10.0f%n", label, result.nanosPerOp(), result.bytesPerOp());
+    }
+}
@@ -0,0 +1,135 @@
+import com.example.productservice.Application;
+import com.example.productservice.dto.BulkProductUpdateResult.ProductVersion;
+import com.example.productservice.entity.Product;
+import com.example.productservice.event.ProductsChangedEvent;
+import com.example.productservice.repository.ProductRepository;
+import com.example.productservice.service.ProductCatalog;
+import com.example.productservice.service.ProductCatalogSnapshot;
+import org.h2.tools.Server;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory catalog snapshot vs the JPA path, on an in-process H2 products table: retained
+ * heap of the snapshot vs a map of loaded entities, single-product and page read cost, and
+ * the copy-on-write cost of applying one product change to the snapshot.
+ *
+ * H2 is served over a loopback TCP connection, so JPA reads include a network round trip and
+ * both the snapshot and the entities hold their own copies of the strings instead of sharing
+ * them with the database's in-memory pages.
+ *
+ * Usage: run-benchmark.sh product-service CatalogSnapshotBenchmark [products] [iterations]
+ */
+public class CatalogSnapshotBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+
+        Server database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        SpringApplication application = new SpringApplication(Application.class);
+        try (ConfigurableApplicationContext context = application.run(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort()
+                        + "/mem:catalog-bench;DB_CLOSE_DELAY=-1",
+                "--spring.cloud.kubernetes.discovery.enabled=false",
+                "--app.catalog.snapshot.enabled=true",
+                "--app.catalog.snapshot.refresh-interval=1h",
+                "--logging.level.root=WARN")) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            ProductRepository repository = context.getBean(ProductRepository.class);
+            ProductCatalog catalog = context.getBean(ProductCatalog.class);
+
+            insertProducts(jdbcTemplate, products);
+            catalog.reload();
+            long[] ids = jdbcTemplate.queryForList("SELECT id FROM products", Long.class)
+                    .stream().mapToLong(Long::longValue).toArray();
+
+            System.out.printf("%,d products%n%n", products);
+            long snapshotBytes = retained(() -> ProductCatalogSnapshot.load(jdbcTemplate));
+            long entityBytes = retained(() -> {
+                Map<Long, Product> cache = new HashMap<>();
+                repository.findAll().forEach(product -> cache.put(product.getId(), product));
+                return cache;
+            });
+            System.out.printf("%-28s %14s %10s%n", "footprint", "retained B", "B/product");
+            System.out.printf("%-28s %,14d %10d%n", "snapshot", snapshotBytes, snapshotBytes / products);
+            long estimatedBytes = ProductCatalogSnapshot.load(jdbcTemplate).estimatedBytes();
+            System.out.printf("%-28s %,14d %10d%n", "snapshot (estimate)", estimatedBytes, estimatedBytes / products);
+            System.out.printf("%-28s %,14d %10d%n%n", "JPA entities in a HashMap", entityBytes, entityBytes / products);
+
+            System.out.printf("%-28s %10s %10s%n", "read", "us/op", "B/op");
+            print("snapshot find(id)", Bench.measure(iterations, iterations,
+                    () -> catalog.find(randomId(ids))));
+            print("JPA findById(id)", Bench.measure(iterations / 10, iterations / 10,
+                    () -> repository.findById(randomId(ids))));
+            print("snapshot page of 20", Bench.measure(iterations, iterations,
+                    () -> catalog.page(PageRequest.of(randomPage(products), 20))));
+            print("JPA page of 20", Bench.measure(iterations / 50, iterations / 50,
+                    () -> repository.findAll(PageRequest.of(randomPage(products), 20))));
+            print("snapshot swap, 1 change", Bench.measure(20, 200, () -> {
+                long id = randomId(ids);
+                context.publishEvent(new ProductsChangedEvent(List.of(new ProductVersion(id, null, null, null))));
+                return id;
+            }));
+        } finally {
+            database.stop();
+        }
+    }
+
+    private static void insertProducts(JdbcTemplate jdbcTemplate, int count) {
+        jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, stock) VALUES (?, ?, ?, ?)",
+                IntStream.range(0, count).boxed().toList(), 1_000, (ps, n) -> {
+                    ps.setString(1, "Product " + n);
+                    ps.setString(2, "Description for product " + n);
+                    ps.setBigDecimal(3, BigDecimal.valueOf(1000 + n * 37L % 100_000, 2));
+                    ps.setInt(4, n % 1000);
+                });
+    }
+
+    /**
+     * Heap still reachable from the loaded object, measured as used heap after full GCs.
+     */
+    private static long retained(Callable<Object> load) throws Exception {
+        long before = usedAfterGc();
+        Object loaded = load.call();
+        long after = usedAfterGc();
+        Reference.reachabilityFence(loaded);
+        return after - before;
+    }
+
+    private static long usedAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long randomId(long[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static int randomPage(int products) {
+        return ThreadLocalRandom.current().nextInt(products / 20);
+    }
+
+    private static void print(String label, Bench.Result result) {
+        System.out.printf("%-28s %10.2f %10.0f%n", label, result.nanosPerOp() / 1000, result.bytesPerOp());
+    }
+}
@@ -0,0 +1,87 @@
+import com.example.productservice.dto.ProductDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.github.luben.zstd.RecyclingBufferPool;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bytes-on-wire and compression CPU cost for product list pages: full Spring Page envelope
+ * vs the slim via-dto envelope, JSON vs Smile, uncompressed vs gzip and zstd at the levels
+ * the compression filter can be configured with.
+ *
+ * Usage: run-benchmark.sh product-service CompressionBenchmark [iterations]
+ */
+public class CompressionBenchmark {
+
+    private interface Compressor {
+        OutputStream wrap(OutputStream out) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper smile = new SmileMapper();
+
+        System.out.printf("%-24s %8s %10s %10s %10s %10s %10s %10s%n", "payload", "raw B",
+                "gzip1 B", "gzip6 B", "zstd1 B", "zstd3 B", "gzip6 us", "zstd3 us");
+        for (int size : new int[] { 20, 100, 500 }) {
+            PageImpl<ProductDto> page = new PageImpl<>(products(size), PageRequest.of(0, size), 100_000);
+            run("json full   size=" + size, json.writeValueAsBytes(page), iterations);
+            run("json slim   size=" + size, json.writeValueAsBytes(new PagedModel<>(page)), iterations);
+            run("smile slim  size=" + size, smile.writeValueAsBytes(new PagedModel<>(page)), iterations);
+        }
+    }
+
+    private static void run(String label, byte[] raw, int iterations) throws Exception {
+        Compressor gzip1 = out -> gzip(out, 1);
+        Compressor gzip6 = out -> gzip(out, 6);
+        Compressor zstd1 = out -> zstd(out, 1);
+        Compressor zstd3 = out -> zstd(out, 3);
+        Bench.Result gzipCost = Bench.measure(iterations / 2, iterations, () -> compress(raw, gzip6));
+        Bench.Result zstdCost = Bench.measure(iterations / 2, iterations, () -> compress(raw, zstd3));
+        System.out.printf("%-24s %8d %10d %10d %10d %10d %10.1f %10.1f%n", label, raw.length,
+                compress(raw, gzip1).length, compress(raw, gzip6).length,
+                compress(raw, zstd1).length, compress(raw, zstd3).length,
+                gzipCost.nanosPerOp() / 1000, zstdCost.nanosPerOp() / 1000);
+    }
+
+    private static byte[] compress(byte[] raw, Compressor compressor) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length / 4);
+        try (OutputStream out = compressor.wrap(bytes)) {
+            out.write(raw);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static OutputStream gzip(OutputStream out, int level) throws Exception {
+        return new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    private static OutputStream zstd(OutputStream out, int level) throws Exception {
+        // Same stream setup as ResponseCompressionFilter
+        return new ZstdOutputStreamNoFinalizer(out, RecyclingBufferPool.INSTANCE).setLevel(level);
+    }
+
+    private static List<ProductDto> products(int size) {
+        List<ProductDto> products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            products.add(new ProductDto((long) i, "Product " + i, "Description for product " + i,
+                    BigDecimal.valueOf(1000 + i * 37L, 2), 10 + i % 990, 0L));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,132 @@
+import com.example.productservice.Application;
+import com.example.productservice.service.Result;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of a "not found" answer. First in isolation, 120 frames below its handler (about as
+ * deep as a controller call sits under Jetty and Spring MVC): a fresh RuntimeException, as
+ * updateProduct used to throw, vs a shared stackless exception vs a returned Result. Then
+ * over HTTP under load: PUT /products/{id} for a missing product (404 problem response)
+ * next to the same update for an existing one (200).
+ *
+ * Usage: run-benchmark.sh product-service ErrorPathBenchmark [clients] [requests]
+ */
+public class ErrorPathBenchmark {
+
+    private static final int DEPTH = 120;
+    private static final RuntimeException STACKLESS = new RuntimeException("Product not found", null, false, false) {
+    };
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private static final String BODY = "{\"name\":\"Bench\",\"description\":\"d\",\"price\":9.99,\"stock\":10}";
+
+    private interface Miss {
+        Object run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        System.out.printf("%-32s %10s %10s%n", "not found, 120 frames deep", "ns/op", "B/op");
+        for (int round = 0; round < 2; round++) {
+            print("throw new RuntimeException", Bench.measure(50_000, 200_000,
+                    () -> caught(() -> { throw new RuntimeException("Product not found"); })));
+            print("throw stackless, preallocated", Bench.measure(50_000, 200_000,
+                    () -> caught(() -> { throw STACKLESS; })));
+            print("return Result.notFound()", Bench.measure(50_000, 200_000,
+                    () -> caught(Result::notFound)));
+        }
+        System.out.println();
+
+        try (ConfigurableApplicationContext context = new SpringApplication(Application.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:error-bench;DB_CLOSE_DELAY=-1",
+                "--spring.cloud.kubernetes.discovery.enabled=false",
+                "--app.warmup.enabled=false",
+                "--app.jfr.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.io.opentelemetry=OFF",
+                "--management.tracing.enabled=false",
+                "--management.otlp.metrics.export.enabled=false")) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpResponse<String> created = HTTP.send(HttpRequest.newBuilder(URI.create(base + "/products"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(BODY))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            String existing = created.body().replaceAll("(?s).*\"id\"\\s*:\\s*(\\d+).*", "$1");
+
+            System.out.printf("%d clients, %,d requests per run%n", clients, requests);
+            System.out.printf("%-32s %8s %8s %8s %8s %6s%n", "PUT /products/{id}", "req/s", "mean ms", "p50 ms",
+                    "p99 ms", "status");
+            for (int round = 0; round < 2; round++) {
+                run("missing product", base + "/products/999999999", 404, clients, requests);
+                run("existing product", base + "/products/" + existing, 200, clients, requests);
+            }
+        }
+    }
+
+    /** Runs {@code miss} {@link #DEPTH} frames down and hands back whatever it returned or threw. */
+    private static Object caught(Miss miss) {
+        try {
+            return descend(DEPTH, miss);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    private static Object descend(int depth, Miss miss) {
+        return depth == 0 ? miss.run() : descend(depth - 1, miss);
+    }
+
+    private static void run(String label, String url, int expected, int clients, int requests) throws Exception {
+        long[] nanos = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger unexpected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            workers.add(executor.submit(() -> {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(BODY))
+                        .build();
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    long begin = System.nanoTime();
+                    if (HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != expected) {
+                        unexpected.incrementAndGet();
+                    }
+                    nanos[i] = System.nanoTime() - begin;
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        Arrays.sort(nanos);
+        System.out.printf("%-32s %8.0f %8.2f %8.2f %8.2f %6s%n", label, requests / seconds,
+                Arrays.stream(nanos).average().orElse(0) / 1e6, nanos[requests / 2] / 1e6,
+                nanos[(int) (requests * 0.99)] / 1e6, unexpected.get() == 0 ? expected : "mixed");
+    }
+
+    private static void print(String label, Bench.Result result) {
+        System.out.printf("%-32s %10.0f %10.0f%n", label, result.nanosPerOp(), result.bytesPerOp());
+    }
+}
@@ -0,0 +1,69 @@
+import com.example.productservice.Application;
+import com.example.productservice.mapper.ProductMapper;
+import com.example.productservice.repository.ProductRepository;
+import org.h2.tools.Server;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of one product list page per page size: loading managed entities and mapping them to
+ * ProductDto (the previous list path) vs selecting straight into ProductDto with a
+ * constructor expression. Both run in the repository's read-only transaction against H2
+ * over loopback TCP; allocation is the client side only.
+ *
+ * Usage: run-benchmark.sh product-service ListProjectionBenchmark [iterations]
+ */
+public class ListProjectionBenchmark {
+
+    private static final int PRODUCTS = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+
+        Server database = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        SpringApplication application = new SpringApplication(Application.class);
+        try (ConfigurableApplicationContext context = application.run(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:tcp://localhost:" + database.getPort()
+                        + "/mem:list-bench;DB_CLOSE_DELAY=-1",
+                "--spring.cloud.kubernetes.discovery.enabled=false",
+                "--logging.level.root=WARN")) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            ProductRepository repository = context.getBean(ProductRepository.class);
+            ProductMapper mapper = context.getBean(ProductMapper.class);
+            jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, stock) VALUES (?, ?, ?, ?)",
+                    IntStream.range(0, PRODUCTS).boxed().toList(), 1_000, (ps, n) -> {
+                        ps.setString(1, "Product " + n);
+                        ps.setString(2, "Description for product " + n);
+                        ps.setBigDecimal(3, BigDecimal.valueOf(1000 + n * 37L % 100_000, 2));
+                        ps.setInt(4, n % 1000);
+                    });
+
+            System.out.printf("%-10s %14s %14s %14s %14s%n", "page size",
+                    "entity us/op", "dto us/op", "entity B/op", "dto B/op");
+            for (int size : new int[] { 20, 100, 500 }) {
+                int runs = Math.max(50, iterations * 20 / size);
+                Bench.Result entities = Bench.measure(runs, runs,
+                        () -> repository.findAll(page(size)).map(mapper::toDto));
+                Bench.Result dtos = Bench.measure(runs, runs,
+                        () -> repository.findAllAsDto(page(size)));
+                System.out.printf("%-10d %14.1f %14.1f %14.0f %14.0f%n", size,
+                        entities.nanosPerOp() / 1000, dtos.nanosPerOp() / 1000,
+                        entities.bytesPerOp(), dtos.bytesPerOp());
+            }
+        } finally {
+            database.stop();
+        }
+    }
+
+    private static PageRequest page(int size) {
+        return PageRequest.of(ThreadLocalRandom.current().nextInt(PRODUCTS / size), size, Sort.by("id"));
+    }
+}
@@ -0,0 +1,84 @@
+import com.example.productservice.config.RequestCostObservationHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Per-request overhead of the allocation and CPU accounting: the server request observation
+ * as Spring MVC runs it (default convention, http.server.requests timer) with and without
+ * RequestCostObservationHandler, so the difference is what the handler adds to every request.
+ *
+ * Usage: run-benchmark.sh product-service RequestCostBenchmark [iterations]
+ */
+public class RequestCostBenchmark {
+
+    private static final DefaultServerRequestObservationConvention CONVENTION =
+            new DefaultServerRequestObservationConvention();
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        HttpServletRequest request = request();
+        HttpServletResponse response = response();
+
+        MeterRegistry plainMeters = new SimpleMeterRegistry();
+        ObservationRegistry plain = ObservationRegistry.create();
+        plain.observationConfig().observationHandler(new DefaultMeterObservationHandler(plainMeters));
+
+        MeterRegistry costMeters = new SimpleMeterRegistry();
+        ObservationRegistry withCost = ObservationRegistry.create();
+        withCost.observationConfig()
+                .observationHandler(new DefaultMeterObservationHandler(costMeters))
+                .observationHandler(new RequestCostObservationHandler(costMeters));
+
+        System.out.println("Request cost accounting supported: " + RequestCostObservationHandler.isSupported());
+        System.out.printf("%-28s %12s %12s%n", "observation", "ns/request", "B/request");
+        for (int round = 0; round < 2; round++) {
+            report("timer only", Bench.measure(iterations / 2, iterations, () -> observe(plain, request, response)));
+            report("timer + request cost", Bench.measure(iterations / 2, iterations, () -> observe(withCost, request, response)));
+        }
+        System.out.printf("recorded %d requests, %.0f B allocated per measured request on average%n",
+                costMeters.get("http.server.requests.allocation").summary().count(),
+                costMeters.get("http.server.requests.allocation").summary().mean());
+    }
+
+    private static Object observe(ObservationRegistry registry, HttpServletRequest request,
+            HttpServletResponse response) {
+        ServerRequestObservationContext context = new ServerRequestObservationContext(request, response);
+        Observation observation = Observation.createNotStarted(null, CONVENTION, () -> context, registry).start();
+        observation.stop();
+        return context;
+    }
+
+    private static void report(String label, Bench.Result result) {
+        System.out.printf("%-28s %12.0f %12.0f%n", label, result.nanosPerOp(), result.bytesPerOp());
+    }
+
+    private static HttpServletRequest request() {
+        return (HttpServletRequest) Proxy.newProxyInstance(RequestCostBenchmark.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "getMethod" -> "GET";
+                    case "getRequestURI" -> "/products/42";
+                    case "getAttribute" -> HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE.equals(args[0])
+                            ? "/products/{id}" : null;
+                    default -> null;
+                });
+    }
+
+    private static HttpServletResponse response() {
+        return (HttpServletResponse) Proxy.newProxyInstance(RequestCostBenchmark.class.getClassLoader(),
+                new Class<?>[] { HttpServletResponse.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "getStatus" -> 200;
+                    case "isCommitted" -> true;
+                    default -> null;
+                });
+    }
+}
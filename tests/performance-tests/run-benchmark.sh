@@ -0,0 +1,37 @@
+#!/bin/bash
+
+# Runs a JVM benchmark from tests/performance-tests/benchmarks/<service>/ against the
+# service's compiled classes and dependency classpath. Helpers shared by all services live
+# in benchmarks/common/.
+#
+# Usage: tests/performance-tests/run-benchmark.sh <service> <BenchmarkClass> [args...]
+# Extra JVM flags can be passed with BENCH_JAVA_OPTS, e.g. BENCH_JAVA_OPTS="-Xmx1g".
+
+set -euo pipefail
+
+USAGE="Usage: $0 <service> <BenchmarkClass> [args...]"
+SERVICE=${1:?$USAGE}
+BENCHMARK=${2:?$USAGE}
+shift 2
+
+ROOT_DIR=$(cd "$(dirname "$0")/../.." && pwd)
+SRC_DIR="$ROOT_DIR/tests/performance-tests/benchmarks/$SERVICE"
+COMMON_DIR="$ROOT_DIR/tests/performance-tests/benchmarks/common"
+OUT_DIR="$ROOT_DIR/$SERVICE/target/benchmarks"
+CP_FILE="$ROOT_DIR/$SERVICE/target/benchmark.classpath"
+
+if [ ! -d "$SRC_DIR" ]; then
+    echo "No benchmarks found for $SERVICE in $SRC_DIR"
+    exit 1
+fi
+
+cd "$ROOT_DIR"
+echo "Compiling $SERVICE and resolving its classpath..."
+mvn -B -q -pl "$SERVICE" compile dependency:build-classpath -Dmdep.outputFile="$CP_FILE"
+CP="$ROOT_DIR/$SERVICE/target/classes:$(cat "$CP_FILE")"
+
+rm -rf "$OUT_DIR" && mkdir -p "$OUT_DIR"
+javac -proc:none -d "$OUT_DIR" -cp "$CP" "$SRC_DIR"/*.java "$COMMON_DIR"/*.java
+
+echo "Running $BENCHMARK..."
+java ${BENCH_JAVA_OPTS:-} -cp "$OUT_DIR:$CP" "$BENCHMARK" "$@"
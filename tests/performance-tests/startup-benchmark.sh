@@ -0,0 +1,76 @@
+#!/bin/bash
+
+# Measures time-to-first-request (container start until the first successful list call)
+# for the JVM, JVM+CDS and native image of each service. Missing images are skipped.
+#
+# Build the images first:
+#   make build-images                                    # <service>:jvm
+#   make build-images JVM_TARGET=cds IMAGE_TAG=jvm-cds   # <service>:jvm-cds
+#   make build-native-images                             # <service>:native
+#
+# Usage: tests/performance-tests/startup-benchmark.sh [runs]
+# Set CONTAINER_CLI=docker to use Docker instead of Podman.
+
+set -uo pipefail
+
+RUNS=${1:-3}
+CLI=${CONTAINER_CLI:-podman}
+SERVICES=${SERVICES:-"user-service product-service order-service"}
+VARIANTS=${VARIANTS:-"jvm jvm-cds native"}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+
+port_of() {
+    case $1 in
+        user-service) echo 8081 ;;
+        product-service) echo 8082 ;;
+        order-service) echo 8083 ;;
+    esac
+}
+
+path_of() {
+    case $1 in
+        user-service) echo "/users?size=1" ;;
+        product-service) echo "/products?size=1" ;;
+        order-service) echo "/orders?size=1" ;;
+    esac
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+# Prints the milliseconds from container start to the first 2xx response, or "timeout"
+measure() {
+    local image=$1 port=$2 path=$3
+    local start id elapsed="timeout"
+    start=$(now_ms)
+    id=$($CLI run -d --rm -p "$port:$port" "$image") || { echo "error"; return; }
+    local deadline=$((start + TIMEOUT_SECONDS * 1000))
+    while [ "$(now_ms)" -lt "$deadline" ]; do
+        if curl -sf -o /dev/null "http://localhost:$port$path"; then
+            elapsed=$(($(now_ms) - start))
+            break
+        fi
+        sleep 0.05
+    done
+    $CLI rm -f "$id" > /dev/null 2>&1
+    echo "$elapsed"
+}
+
+printf "%-16s %-8s %s\n" "service" "variant" "time-to-first-request ms (per run)"
+for service in $SERVICES; do
+    port=$(port_of "$service")
+    path=$(path_of "$service")
+    for variant in $VARIANTS; do
+        image="$service:$variant"
+        if ! $CLI image exists "$image" 2> /dev/null && ! $CLI image inspect "$image" > /dev/null 2>&1; then
+            printf "%-16s %-8s %s\n" "$service" "$variant" "skipped (image not found)"
+            continue
+        fi
+        results=""
+        for _ in $(seq 1 "$RUNS"); do
+            results="$results $(measure "$image" "$port" "$path")"
+        done
+        printf "%-16s %-8s %s\n" "$service" "$variant" "$results"
+    done
+done
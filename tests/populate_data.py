@@ -3,13 +3,10 @@ import concurrent.futures
 import random
 import time
 import argparse
+import json
 
 def create_user(i, base_url):
-    user = {
-        "name": f"User {i}",
-        "email": f"user{i}@example.com",
-        "phone": f"555-01{i:02d}"
-    }
+    user = user_row(i)
     try:
         resp = requests.post(f"{base_url}/users", json=user)
         resp.raise_for_status()
@@ -19,12 +16,7 @@ def create_user(i, base_url):
         return None
 
 def create_product(i, base_url):
-    product = {
-        "name": f"Product {i}",
-        "description": f"Description for product {i}",
-        "price": round(random.uniform(10.0, 500.0), 2),
-        "stock": random.randint(10, 1000)
-    }
+    product = product_row(i)
     try:
         resp = requests.post(f"{base_url}/products", json=product)
         resp.raise_for_status()
@@ -33,6 +25,41 @@ def create_product(i, base_url):
         print(f"Failed to create product {i}: {e}")
         return None
 
+def user_row(i):
+    return {"name": f"User {i}", "email": f"user{i}@example.com", "phone": f"555-01{i:02d}"}
+
+def product_row(i):
+    return {
+        "name": f"Product {i}",
+        "description": f"Description for product {i}",
+        "price": round(random.uniform(10.0, 500.0), 2),
+        "stock": random.randint(10, 1000)
+    }
+
+def bulk_import(path, row, count, base_url):
+    # Streams NDJSON to the import endpoint, then pages through the collection for the ids
+    print(f"Importing {count} items into {path}...")
+    body = (json.dumps(row(i)).encode() + b"\n" for i in range(1, count + 1))
+    resp = requests.post(f"{base_url}{path}/import", data=body,
+                         headers={"Content-Type": "application/x-ndjson"})
+    resp.raise_for_status()
+    result = resp.json()
+    print(f"Imported {result['imported']} of {result['rows']} in {result['elapsedMillis']} ms "
+          f"({result['rowsPerSecond']} rows/s), {result['failed']} failed")
+    for error in result["errors"]:
+        print(f"  line {error['line']}: {error['message']}")
+
+    ids = []
+    page = 0
+    while True:
+        resp = requests.get(f"{base_url}{path}", params={"page": page, "size": 1000, "sort": "id"})
+        resp.raise_for_status()
+        data = resp.json()
+        ids.extend(item["id"] for item in data["content"])
+        if data.get("last", True):
+            return ids
+        page += 1
+
 def create_order(i, base_url, user_ids, product_ids):
     if not user_ids or not product_ids:
         return None
@@ -77,6 +104,8 @@ def main():
     parser.add_argument("--products", type=int, default=10000, help="Number of products")
     parser.add_argument("--orders", type=int, default=50000, help="Number of orders")
     parser.add_argument("--concurrency", type=int, default=20, help="Concurrency level")
+    parser.add_argument("--per-row", action="store_true",
+                        help="Create users and products with one POST each instead of the bulk import endpoints")
     
     args = parser.parse_args()
     
@@ -84,14 +113,20 @@ def main():
     
     # 1. Create Users
     print("\n--- Creating Users ---")
-    user_ids = run_batch(create_user, args.users, args.concurrency, args.url)
+    if args.per_row:
+        user_ids = run_batch(create_user, args.users, args.concurrency, args.url)
+    else:
+        user_ids = bulk_import("/users", user_row, args.users, args.url)
     if not user_ids:
         print("No users created. Exiting.")
         return
 
     # 2. Create Products
     print("\n--- Creating Products ---")
-    product_ids = run_batch(create_product, args.products, args.concurrency, args.url)
+    if args.per_row:
+        product_ids = run_batch(create_product, args.products, args.concurrency, args.url)
+    else:
+        product_ids = bulk_import("/products", product_row, args.products, args.url)
     if not product_ids:
         print("No products created. Exiting.")
         return
@@ -0,0 +1,30 @@
+package com.example.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Response compression settings. A response is compressed only when its content type
+ * matches one of the {@code rules} and its body reaches that rule's size threshold.
+ */
+@ConfigurationProperties(prefix = "app.compression")
+public record CompressionProperties(
+        boolean enabled,
+        @DefaultValue("2KB") DataSize minResponseSize,
+        @DefaultValue({ "zstd", "gzip" }) List<String> encodings,
+        @DefaultValue("6") int gzipLevel,
+        @DefaultValue("3") int zstdLevel,
+        @DefaultValue List<Rule> rules) {
+
+    /**
+     * @param mimeType        content types the rule applies to, wildcards allowed
+     * @param minResponseSize overrides the global threshold when set
+     * @param encodings       restricts the encodings used for this content type when set
+     */
+    public record Rule(MediaType mimeType, DataSize minResponseSize, List<String> encodings) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.userservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.request-cost", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RequestCostConfig {
+    private static final Logger logger = LoggerFactory.getLogger(RequestCostConfig.class);
+
+    @Bean
+    public RequestCostObservationHandler requestCostObservationHandler(MeterRegistry registry) {
+        if (!RequestCostObservationHandler.isSupported()) {
+            logger.warn("This JVM does not measure per-thread allocation or CPU time; request cost metrics stay empty");
+        }
+        return new RequestCostObservationHandler(registry);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.userservice.config;
+
+import com.sun.management.ThreadMXBean;
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how much heap each HTTP request allocated and how much CPU time it used, as the
+ * distribution summaries {@code http.server.requests.allocation} (bytes) and
+ * {@code http.server.requests.cpu} (seconds), tagged with the same {@code method} and
+ * {@code uri} as {@code http.server.requests}.
+ *
+ * <p>Both numbers are per-thread counters the JVM keeps anyway, read when the request's
+ * observation starts and again when it stops, so a request costs four counter reads and two
+ * recordings. Only the request thread is counted: work handed to other threads, such as
+ * order-service's processing pipeline, is not included, and a request that completes
+ * on a different thread than it started on is not recorded.
+ */
+public class RequestCostObservationHandler implements ObservationHandler<ServerRequestObservationContext> {
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final MeterRegistry registry;
+    private final Map<String, Summaries> summaries = new ConcurrentHashMap<>();
+
+    private record Start(Thread thread, long allocatedBytes, long cpuNanos) {
+    }
+
+    private record Summaries(DistributionSummary allocation, DistributionSummary cpu) {
+    }
+
+    public RequestCostObservationHandler(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Whether this JVM measures per-thread allocation and CPU time and has both enabled.
+     */
+    public static boolean isSupported() {
+        return THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled()
+                && THREADS.isThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context instanceof ServerRequestObservationContext;
+    }
+
+    @Override
+    public void onStart(ServerRequestObservationContext context) {
+        context.put(Start.class, new Start(Thread.currentThread(),
+                THREADS.getCurrentThreadAllocatedBytes(), THREADS.getCurrentThreadCpuTime()));
+    }
+
+    @Override
+    public void onStop(ServerRequestObservationContext context) {
+        Start start = context.get(Start.class);
+        if (start == null || start.thread() != Thread.currentThread()) {
+            return;
+        }
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - start.allocatedBytes();
+        long cpuNanos = THREADS.getCurrentThreadCpuTime() - start.cpuNanos();
+        Summaries route = summaries(value(context, "method"), value(context, "uri"));
+        route.allocation().record(allocated);
+        route.cpu().record(cpuNanos / 1e9);
+    }
+
+    private Summaries summaries(String method, String uri) {
+        return summaries.computeIfAbsent(method + " " + uri, key -> new Summaries(
+                DistributionSummary.builder("http.server.requests.allocation")
+                        .description("Heap allocated by the request thread per request")
+                        .baseUnit("bytes")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(registry),
+                DistributionSummary.builder("http.server.requests.cpu")
+                        .description("CPU time used by the request thread per request")
+                        .baseUnit("seconds")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .register(registry)));
+    }
+
+    private static String value(ServerRequestObservationContext context, String key) {
+        KeyValue keyValue = context.getLowCardinalityKeyValue(key);
+        return keyValue == null ? "UNKNOWN" : keyValue.getValue();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.userservice.config;
+
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+@Configuration
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class WarmUpConfig {
+
+    /**
+     * Keeps warm-up requests out of http.server.requests and traces; they are slow on
+     * purpose and would show up as a latency spike on every deploy.
+     */
+    @Bean
+    public ObservationPredicate skipWarmUpObservations() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                && request.getCarrier().getHeader(WarmUpRunner.HEADER) != null);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.userservice.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read traffic to this instance over loopback before it reports ready, so the first
+ * real requests after a deploy do not pay for class loading, JIT compilation, an empty
+ * connection pool or cold database pages. Requests go through the full HTTP stack and
+ * alternate between JSON and Smile and between gzip and zstd.
+ *
+ * <p>Spring Boot switches readiness to ACCEPTING_TRAFFIC only after all runners returned,
+ * so {@code /actuator/health/readiness} reports OUT_OF_SERVICE until this is done. Failed
+ * requests are counted and logged; they never stop the service from starting.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    static final String HEADER = "X-Warm-Up";
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private WarmUpProperties properties;
+
+    @Autowired
+    private Environment environment;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + properties.timeout().toNanos();
+        RestTemplate client = new RestTemplate();
+        String baseUrl = "http://localhost:" + environment.getProperty("local.server.port");
+
+        List<String> paths = new ArrayList<>(List.of("/users?size=20", "/users?size=20&fields=id,name,email"));
+        for (Long id : hotIds(client, baseUrl)) {
+            paths.add("/users/" + id);
+        }
+
+        int sent = 0;
+        int failed = 0;
+        while (sent < properties.requests() && System.nanoTime() < deadline) {
+            // Each full pass over the paths switches the format and encoding
+            if (!send(client, baseUrl + paths.get(sent % paths.size()), sent / paths.size())) {
+                failed++;
+            }
+            sent++;
+        }
+        logger.info("Warm-up sent {} requests over {} paths in {} ms, {} failed",
+                sent, paths.size(), (System.nanoTime() - start) / 1_000_000, failed);
+    }
+
+    private boolean send(RestTemplate client, String url, int round) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HEADER, "true");
+        headers.setAccept(List.of(round % 2 == 0 ? MediaType.APPLICATION_JSON : SMILE));
+        headers.set(HttpHeaders.ACCEPT_ENCODING, round / 2 % 2 == 0 ? "gzip" : "zstd");
+        try {
+            client.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+            return true;
+        } catch (RestClientException e) {
+            logger.debug("Warm-up request to {} failed: {}", url, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Ids of the newest users, which are the likeliest to be read right after a deploy.
+     */
+    private List<Long> hotIds(RestTemplate client, String baseUrl) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HEADER, "true");
+        List<Long> ids = new ArrayList<>();
+        try {
+            JsonNode page = client.exchange(baseUrl + "/users?sort=id,desc&fields=id&size=" + properties.hotItems(),
+                    HttpMethod.GET, new HttpEntity<>(headers), JsonNode.class).getBody();
+            if (page != null) {
+                page.path("content").forEach(user -> ids.add(user.path("id").asLong()));
+            }
+        } catch (RestClientException e) {
+            logger.warn("Could not load hot users for warm-up: {}", e.getMessage());
+        }
+        return ids;
+    }
+}
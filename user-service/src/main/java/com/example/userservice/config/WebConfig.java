@@ -0,0 +1,61 @@
+package com.example.userservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(CompressionProperties.class)
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    /**
+     * Offers Smile (binary JSON) to callers sending {@code Accept: application/x-jackson-smile}.
+     * Appended after the defaults so plain JSON stays the answer for wildcard Accept headers.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // The injected builder carries Boot's spring.jackson.* settings and the filters below;
+        // the static Jackson2ObjectMapperBuilder.smile() would start from scratch
+        ObjectMapper smileMapper = objectMapperBuilder.factory(new SmileFactory()).build();
+        // Replaces MVC's own Smile converter, which is built without the filters
+        converters.removeIf(MappingJackson2SmileHttpMessageConverter.class::isInstance);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper));
+    }
+
+    /**
+     * Registers the serialize-everything default for {@link SparseFieldsetAdvice#FILTER}, so
+     * filtered types serialize in full when a response is written without {@code fields}.
+     * Static because the builder this customizes is injected above.
+     */
+    @Bean
+    public static Jackson2ObjectMapperBuilderCustomizer sparseFieldsetFilters() {
+        return builder -> builder.filters(SparseFieldsetAdvice.defaultFilters());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.compression", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilter(
+            CompressionProperties properties) {
+        FilterRegistrationBean<ResponseCompressionFilter> registration =
+                new FilterRegistrationBean<>(new ResponseCompressionFilter(properties));
+        // Run just inside the observation filter so metrics and traces cover compression time
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
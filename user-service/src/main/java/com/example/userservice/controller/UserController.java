@@ -1,10 +1,13 @@
 package com.example.userservice.controller;
 
 import com.example.userservice.dto.CreateUserRequest;
+import com.example.userservice.dto.ImportResult;
 import com.example.userservice.dto.UpdateUserRequest;
 import com.example.userservice.dto.UserDto;
 import com.example.userservice.entity.User;
 import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.service.Result;
+import com.example.userservice.service.UserImportService;
 import com.example.userservice.service.UserService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -13,10 +16,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/users")
 public class UserController {
@@ -25,14 +34,16 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserImportService userImportService;
+
     @Autowired
     private UserMapper userMapper;
 
     @GetMapping
     public Page<UserDto> getAllUsers(@NonNull Pageable pageable) {
         logger.debug("GET /users called with pagination");
-        return userService.getAllUsers(pageable)
-                .map(userMapper::toDto);
+        return userService.getAllUsers(pageable);
     }
 
     @GetMapping("/{id}")
@@ -58,60 +69,79 @@ public class UserController {
         return ResponseEntity.status(HttpStatus.CREATED).body(userMapper.toDto(saved));
     }
 
+    /**
+     * Bulk-creates users from a CSV or NDJSON body, streamed rather than buffered.
+     */
+    @PostMapping(path = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ImportResult importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        logger.info("POST /users/import called with {}", contentType);
+        return userImportService.importUsers(body, contentType);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<UserDto> replaceUser(@PathVariable @NonNull Long id,
             @Valid @RequestBody CreateUserRequest request) {
         // PUT = full replace; reusing CreateUserRequest as it has all required fields
-        try {
-            User user = userMapper.toEntity(request);
-            User replaced = userService.replaceUser(id, user);
-            logger.info("PUT /users/{} replaced", id);
-            return ResponseEntity.ok(userMapper.toDto(replaced));
-        } catch (RuntimeException e) {
-            logger.debug("PUT /users/{} not found", id);
-            return ResponseEntity.notFound().build();
-        }
+        User user = userMapper.toEntity(request);
+        return switch (userService.replaceUser(id, user)) {
+            case Result.Ok<User>(User replaced) -> {
+                logger.info("PUT /users/{} replaced", id);
+                yield ResponseEntity.ok(userMapper.toDto(replaced));
+            }
+            case Result.NotFound<User>() -> {
+                logger.debug("PUT /users/{} not found", id);
+                yield problem(HttpStatus.NOT_FOUND, "User " + id + " not found");
+            }
+            case Result.Invalid<User>(String message) -> problem(HttpStatus.BAD_REQUEST, message);
+        };
     }
 
     @PatchMapping("/{id}")
     public ResponseEntity<UserDto> patchUser(@PathVariable @NonNull Long id,
             @Valid @RequestBody UpdateUserRequest request) {
         // PATCH = partial update
-        try {
-            // We need to fetch the user first to update it using mapper, but
-            // UserService.updateUser
-            // currently takes a User entity with the fields to update.
-            // A better approach with DTOs:
-            // 1. Fetch existing (Service)
-            // 2. Map updates (Mapper)
-            // 3. Save (Service)
-            // However, to minimize Service changes, I will map DTO to a temporary User
-            // object
-            // and pass it to userService.updateUser which handles the logic.
-
-            User tempUser = new User();
-            // We only set fields that are present in the request
-            // But UpdateUserRequest fields are always present (null if not set).
-            // UserMapper.updateEntity updates a target entity.
-
-            // Let's use a temporary user and manually map for now to match Service
-            // expectation
-            // Or better: update Service to take DTO? No, keep Service pure.
-            // I'll create a temp user with the fields from request.
-            if (request.getName() != null)
-                tempUser.setName(request.getName());
-            if (request.getEmail() != null)
-                tempUser.setEmail(request.getEmail());
-            if (request.getPhone() != null)
-                tempUser.setPhone(request.getPhone());
-
-            User updated = userService.updateUser(id, tempUser);
-            logger.info("PATCH /users/{} updated", id);
-            return ResponseEntity.ok(userMapper.toDto(updated));
-        } catch (RuntimeException e) {
-            logger.debug("PATCH /users/{} not found or invalid", id);
-            return ResponseEntity.notFound().build();
-        }
+        // We need to fetch the user first to update it using mapper, but
+        // UserService.updateUser
+        // currently takes a User entity with the fields to update.
+        // A better approach with DTOs:
+        // 1. Fetch existing (Service)
+        // 2. Map updates (Mapper)
+        // 3. Save (Service)
+        // However, to minimize Service changes, I will map DTO to a temporary User
+        // object
+        // and pass it to userService.updateUser which handles the logic.
+
+        User tempUser = new User();
+        // We only set fields that are present in the request
+        // But UpdateUserRequest fields are always present (null if not set).
+        // UserMapper.updateEntity updates a target entity.
+
+        // Let's use a temporary user and manually map for now to match Service
+        // expectation
+        // Or better: update Service to take DTO? No, keep Service pure.
+        // I'll create a temp user with the fields from request.
+        if (request.getName() != null)
+            tempUser.setName(request.getName());
+        if (request.getEmail() != null)
+            tempUser.setEmail(request.getEmail());
+        if (request.getPhone() != null)
+            tempUser.setPhone(request.getPhone());
+
+        return switch (userService.updateUser(id, tempUser)) {
+            case Result.Ok<User>(User updated) -> {
+                logger.info("PATCH /users/{} updated", id);
+                yield ResponseEntity.ok(userMapper.toDto(updated));
+            }
+            case Result.NotFound<User>() -> {
+                logger.debug("PATCH /users/{} not found", id);
+                yield problem(HttpStatus.NOT_FOUND, "User " + id + " not found");
+            }
+            case Result.Invalid<User>(String message) -> {
+                logger.debug("PATCH /users/{} invalid: {}", id, message);
+                yield problem(HttpStatus.BAD_REQUEST, message);
+            }
+        };
     }
 
     @DeleteMapping("/{id}")
@@ -121,4 +151,9 @@ public class UserController {
         logger.info("DELETE /users/{} completed", id);
         return ResponseEntity.noContent().build();
     }
+
+    /** An RFC 7807 problem response in place of the endpoint's usual body. */
+    private static <T> ResponseEntity<T> problem(HttpStatus status, String detail) {
+        return ResponseEntity.of(ProblemDetail.forStatusAndDetail(status, detail)).build();
+    }
 }
@@ -1,10 +1,13 @@
 package com.example.userservice.dto;
 
+import com.example.userservice.config.SparseFieldsetAdvice;
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
+@JsonFilter(SparseFieldsetAdvice.FILTER)
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserDto {
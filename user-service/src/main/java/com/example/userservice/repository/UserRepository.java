@@ -1,9 +1,21 @@
 package com.example.userservice.repository;
 
+import com.example.userservice.dto.UserDto;
 import com.example.userservice.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    /**
+     * User list page selected straight into DTOs: no entities are hydrated or tracked by the
+     * persistence context.
+     */
+    @Query(value = "SELECT new com.example.userservice.dto.UserDto(u.id, u.name, u.email, u.phone) FROM User u",
+            countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserDto> findAllAsDto(Pageable pageable);
 }
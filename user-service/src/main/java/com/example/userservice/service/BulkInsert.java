@@ -0,0 +1,101 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.ImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects validated rows of one import and writes them with JDBC batch inserts, one
+ * transaction per {@link #BATCH_SIZE} rows, so memory stays bounded however large the input.
+ * A batch the database rejects is retried row by row to pin the error on the offending rows.
+ */
+final class BulkInsert<T> {
+    private static final Logger logger = LoggerFactory.getLogger(BulkInsert.class);
+    static final int BATCH_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String sql;
+    private final ParameterizedPreparedStatementSetter<T> setter;
+    private final long startNanos = System.nanoTime();
+
+    private final List<T> rows = new ArrayList<>(BATCH_SIZE);
+    private final List<Long> lines = new ArrayList<>(BATCH_SIZE);
+    private final List<ImportResult.RowError> errors = new ArrayList<>();
+    private long total;
+    private long imported;
+    private long failed;
+
+    BulkInsert(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, String sql,
+            ParameterizedPreparedStatementSetter<T> setter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sql = sql;
+        this.setter = setter;
+    }
+
+    void add(long line, T row) {
+        total++;
+        rows.add(row);
+        lines.add(line);
+        if (rows.size() == BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    void reject(long line, String message) {
+        total++;
+        recordError(line, message);
+    }
+
+    /** Rows committed so far; they stay committed if the import is abandoned. */
+    long imported() {
+        return imported;
+    }
+
+    ImportResult finish() {
+        flush();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : total * 1_000_000_000.0 / elapsedNanos;
+        return new ImportResult(total, imported, failed, elapsedNanos / 1_000_000,
+                Math.round(rowsPerSecond * 10) / 10.0, List.copyOf(errors), failed > errors.size());
+    }
+
+    private void flush() {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows, rows.size(), setter));
+            imported += rows.size();
+        } catch (DataAccessException e) {
+            logger.debug("Batch of {} rows rejected, retrying row by row: {}", rows.size(), e.getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                T row = rows.get(i);
+                try {
+                    jdbcTemplate.batchUpdate(sql, List.of(row), 1, setter);
+                    imported++;
+                } catch (DataAccessException rowError) {
+                    recordError(lines.get(i), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        rows.clear();
+        lines.clear();
+    }
+
+    private void recordError(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ImportResult.RowError(line, message));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.CreateUserRequest;
+import com.example.userservice.dto.ImportResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams users from CSV (header row required: {@code name,email,phone}, in any order, phone
+ * optional) or NDJSON (one {@link CreateUserRequest} per line) into the users table. Rows are
+ * validated like {@code POST /users}; invalid rows are reported and skipped, the rest are
+ * inserted.
+ */
+@Service
+public class UserImportService {
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final String INSERT_SQL = "INSERT INTO users (name, email, phone) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public ImportResult importUsers(InputStream body, MediaType contentType) throws IOException {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset), 64 * 1024);
+        BulkInsert<CreateUserRequest> insert = new BulkInsert<>(jdbcTemplate, transactionTemplate, INSERT_SQL,
+                (ps, user) -> {
+                    ps.setString(1, user.getName());
+                    ps.setString(2, user.getEmail());
+                    ps.setString(3, user.getPhone());
+                });
+        try {
+            if (TEXT_CSV.isCompatibleWith(contentType)) {
+                readCsv(reader, insert);
+            } else {
+                readNdjson(reader, insert);
+            }
+            ImportResult result = insert.finish();
+            logger.info("Imported {} of {} users in {} ms ({} rows/s)",
+                    result.imported(), result.rows(), result.elapsedMillis(), result.rowsPerSecond());
+            return result;
+        } catch (IOException | RuntimeException e) {
+            // Earlier batches stay committed; the error response does not say how many
+            logger.warn("User import aborted after {} rows were committed: {}", insert.imported(), e.getMessage());
+            throw e;
+        }
+    }
+
+    private void readCsv(BufferedReader reader, BulkInsert<CreateUserRequest> insert) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        header = header.stream().map(String::trim).toList();
+        int name = header.indexOf("name");
+        int email = header.indexOf("email");
+        int phone = header.indexOf("phone");
+        if (name < 0 || email < 0) {
+            throw new IllegalArgumentException("CSV header must contain name and email columns");
+        }
+
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            if (fields.size() != header.size()) {
+                insert.reject(csv.recordLine(), "Expected " + header.size() + " fields but found " + fields.size());
+                continue;
+            }
+            CreateUserRequest user = new CreateUserRequest();
+            user.setName(fields.get(name));
+            user.setEmail(fields.get(email).trim());
+            user.setPhone(phone < 0 ? null : emptyToNull(fields.get(phone)));
+            validateAndAdd(csv.recordLine(), user, insert);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, BulkInsert<CreateUserRequest> insert) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                validateAndAdd(lineNumber, objectMapper.readValue(line, CreateUserRequest.class), insert);
+            } catch (JsonProcessingException e) {
+                insert.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void validateAndAdd(long line, CreateUserRequest user, BulkInsert<CreateUserRequest> insert) {
+        Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            insert.add(line, user);
+        } else {
+            insert.reject(line, violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.userservice.service;
 
+import com.example.userservice.dto.UserDto;
 import com.example.userservice.entity.User;
 import com.example.userservice.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 @Service
@@ -19,13 +21,15 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
-    public Page<User> getAllUsers(@NonNull Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Page<UserDto> getAllUsers(@NonNull Pageable pageable) {
         logger.debug("Fetching users with pagination");
-        Page<User> page = userRepository.findAll(pageable);
+        Page<UserDto> page = userRepository.findAllAsDto(pageable);
         logger.debug("Fetched {} users", page.getNumberOfElements());
         return page;
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> getUserById(Long id) {
         if (id == null) {
             return Optional.empty();
@@ -46,66 +50,76 @@ public class UserService {
         return saved;
     }
 
-    public User updateUser(@NonNull Long id, User userDetails) {
+    /**
+     * Updates the fields that are provided (non-null). Not found and a blank name or email are
+     * returned as results, before anything is changed.
+     */
+    @Transactional
+    public Result<User> updateUser(@NonNull Long id, User userDetails) {
         if (id == null) {
             throw new IllegalArgumentException("User id cannot be null");
         }
         logger.info("Updating user id={}", id);
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        Optional<User> existing = userRepository.findById(id);
+        if (existing.isEmpty()) {
+            logger.debug("User id={} not found", id);
+            return Result.notFound();
+        }
+        User user = existing.get();
 
         // Only update fields that are provided (non-null) to avoid violating NOT NULL
-        // constraints
-        if (userDetails.getName() != null) {
-            user.setName(userDetails.getName());
+        // constraints; required fields must remain present
+        String name = userDetails.getName() != null ? userDetails.getName() : user.getName();
+        String email = userDetails.getEmail() != null ? userDetails.getEmail() : user.getEmail();
+        if (name == null || name.isBlank()) {
+            return Result.invalid("User 'name' is required and cannot be null or empty");
         }
-        if (userDetails.getEmail() != null) {
-            user.setEmail(userDetails.getEmail());
+        if (email == null || email.isBlank()) {
+            return Result.invalid("User 'email' is required and cannot be null or empty");
         }
+        user.setName(name);
+        user.setEmail(email);
         if (userDetails.getPhone() != null) {
             user.setPhone(userDetails.getPhone());
         }
 
-        // Validate required fields remain present
-        if (user.getName() == null || user.getName().isBlank()) {
-            throw new IllegalArgumentException("User 'name' is required and cannot be null or empty");
-        }
-        if (user.getEmail() == null || user.getEmail().isBlank()) {
-            throw new IllegalArgumentException("User 'email' is required and cannot be null or empty");
-        }
-
         User saved = userRepository.save(user);
         logger.info("Updated user id={}", saved.getId());
-        return saved;
+        return Result.ok(saved);
     }
 
     /**
      * Replace the user record with the provided details. This is a full replace
      * (PUT semantics) and requires required fields to be present.
      */
-    public User replaceUser(@NonNull Long id, User userDetails) {
+    @Transactional
+    public Result<User> replaceUser(@NonNull Long id, User userDetails) {
         if (id == null) {
             throw new IllegalArgumentException("User id cannot be null");
         }
         logger.info("Replacing user id={}", id);
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        Optional<User> existing = userRepository.findById(id);
+        if (existing.isEmpty()) {
+            logger.debug("User id={} not found", id);
+            return Result.notFound();
+        }
 
         // Full replace - required fields must be present
         if (userDetails.getName() == null || userDetails.getName().isBlank()) {
-            throw new IllegalArgumentException("User 'name' is required for full replace");
+            return Result.invalid("User 'name' is required for full replace");
         }
         if (userDetails.getEmail() == null || userDetails.getEmail().isBlank()) {
-            throw new IllegalArgumentException("User 'email' is required for full replace");
+            return Result.invalid("User 'email' is required for full replace");
         }
 
+        User user = existing.get();
         user.setName(userDetails.getName());
         user.setEmail(userDetails.getEmail());
         user.setPhone(userDetails.getPhone());
 
         User saved = userRepository.save(user);
         logger.info("Replaced user id={}", saved.getId());
-        return saved;
+        return Result.ok(saved);
     }
 
     public void deleteUser(Long id) {